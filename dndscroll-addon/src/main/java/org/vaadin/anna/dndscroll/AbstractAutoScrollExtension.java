@@ -0,0 +1,328 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import org.vaadin.anna.dndscroll.AutoScrollEvent.Type;
+import org.vaadin.anna.dndscroll.shared.AutoScrollExtensionState;
+import org.vaadin.anna.dndscroll.shared.AutoScrollServerRpc;
+import org.vaadin.anna.dndscroll.shared.AutoScrollStatistics;
+import org.vaadin.anna.dndscroll.shared.PointerTrace;
+import org.vaadin.anna.dndscroll.shared.ScrollDirection;
+import org.vaadin.anna.dndscroll.shared.ScrollSpeedProfile;
+
+import com.vaadin.server.AbstractExtension;
+import com.vaadin.shared.Registration;
+
+/**
+ * Base class for the extensions that make a component scroll automatically
+ * when a dragged item is hovered near the edges of the visible area.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public abstract class AbstractAutoScrollExtension extends AbstractExtension {
+
+    private final AutoScrollServerRpc rpc = new AutoScrollServerRpc() {
+
+        @Override
+        public void autoScrollStarted() {
+            fireEvent(new AutoScrollEvent(AbstractAutoScrollExtension.this,
+                    Type.STARTED, ScrollDirection.NONE));
+        }
+
+        @Override
+        public void scrollDirectionChanged(ScrollDirection direction) {
+            fireEvent(new AutoScrollEvent(AbstractAutoScrollExtension.this,
+                    Type.DIRECTION_CHANGED, direction));
+        }
+
+        @Override
+        public void autoScrollEnded() {
+            fireEvent(new AutoScrollEvent(AbstractAutoScrollExtension.this,
+                    Type.ENDED, ScrollDirection.NONE));
+        }
+
+        @Override
+        public void statisticsReported(AutoScrollStatistics statistics) {
+            fireEvent(new AutoScrollStatisticsEvent(
+                    AbstractAutoScrollExtension.this, statistics));
+        }
+
+        @Override
+        public void pointerTraceRecorded(PointerTrace trace) {
+            fireEvent(new PointerTraceEvent(AbstractAutoScrollExtension.this,
+                    trace));
+        }
+    };
+
+    protected AbstractAutoScrollExtension() {
+        registerRpc(rpc);
+    }
+
+    /**
+     * Adds a listener that gets notified when a drag starts auto-scrolling
+     * the extended component, when the scroll direction changes, and when the
+     * drag ends. This includes drags that start within a nested auto-scrolling
+     * component and scroll this one as its enclosing scroller. The client only
+     * sends these notifications while there are listeners, and direction
+     * changes are throttled.
+     *
+     * @param listener
+     *            the listener to add
+     * @return registration for removing the listener
+     */
+    public Registration addAutoScrollListener(AutoScrollListener listener) {
+        Registration registration = addListener(AutoScrollEvent.class,
+                listener, AutoScrollListener.AUTO_SCROLL_METHOD);
+        getState().autoScrollEvents = true;
+        return () -> {
+            registration.remove();
+            getState().autoScrollEvents = hasListeners(AutoScrollEvent.class);
+        };
+    }
+
+    /**
+     * Adds a listener for the frame timing statistics of auto-scrolling
+     * drags. The statistics are only recorded on the client while there are
+     * listeners, and they are sent once per drag after the drag has ended.
+     * Only the drags that start within the extended component are recorded.
+     *
+     * @param listener
+     *            the listener to add
+     * @return registration for removing the listener
+     */
+    public Registration addStatisticsListener(
+            AutoScrollStatisticsListener listener) {
+        Registration registration = addListener(
+                AutoScrollStatisticsEvent.class, listener,
+                AutoScrollStatisticsListener.STATISTICS_METHOD);
+        getState().statisticsEnabled = true;
+        return () -> {
+            registration.remove();
+            getState().statisticsEnabled = hasListeners(
+                    AutoScrollStatisticsEvent.class);
+        };
+    }
+
+    /**
+     * Adds a listener for the pointer traces of auto-scrolling drags. Traces
+     * are only recorded on the client while there are listeners, and they are
+     * sent once per drag after the drag has ended. Only the drags that start
+     * within the extended component are recorded. Meant for collecting a
+     * corpus of real drags for tuning the speed settings offline, see
+     * {@link PointerTraces}.
+     *
+     * @param listener
+     *            the listener to add
+     * @return registration for removing the listener
+     */
+    public Registration addPointerTraceListener(
+            PointerTraceListener listener) {
+        Registration registration = addListener(PointerTraceEvent.class,
+                listener, PointerTraceListener.POINTER_TRACE_METHOD);
+        getState().pointerTraceRecording = true;
+        return () -> {
+            registration.remove();
+            getState().pointerTraceRecording = hasListeners(
+                    PointerTraceEvent.class);
+        };
+    }
+
+    /**
+     * Sets the profile that defines how the scroll speed is derived from the
+     * position of the dragged item. Default is
+     * {@link ScrollSpeedProfile#LINEAR}.
+     *
+     * @param speedProfile
+     *            the speed profile, not {@code null}
+     */
+    public void setSpeedProfile(ScrollSpeedProfile speedProfile) {
+        if (speedProfile == null) {
+            throw new IllegalArgumentException(
+                    "Speed profile must not be null");
+        }
+        getState().speedProfile = speedProfile;
+    }
+
+    public ScrollSpeedProfile getSpeedProfile() {
+        return getState(false).speedProfile;
+    }
+
+    /**
+     * Sets the scroll speed at the end of the scrolling area. Default is 800
+     * pixels per second.
+     *
+     * @param pixelsPerSecond
+     *            the scroll speed
+     */
+    public void setScrollSpeed(int pixelsPerSecond) {
+        getState().scrollSpeed = pixelsPerSecond;
+    }
+
+    public int getScrollSpeed() {
+        return getState(false).scrollSpeed;
+    }
+
+    /**
+     * Sets the upper limit for the scroll speed. This is the speed reached at
+     * the end of the scrolling area with {@link ScrollSpeedProfile#EXPONENTIAL}
+     * and the limit for the acceleration of {@link ScrollSpeedProfile#DWELL}.
+     * Default is 8000 pixels per second.
+     *
+     * @param pixelsPerSecond
+     *            the maximum scroll speed
+     * @see #setMaxScrollSpeedRatio(double)
+     */
+    public void setMaxScrollSpeed(int pixelsPerSecond) {
+        getState().maxScrollSpeed = pixelsPerSecond;
+    }
+
+    public int getMaxScrollSpeed() {
+        return getState(false).maxScrollSpeed;
+    }
+
+    /**
+     * Makes the maximum scroll speed scale with the total scroll size of the
+     * component. If the ratio is positive, the maximum scroll speed is at
+     * least the given fraction of the scroll size per second, e.g. with ratio
+     * 0.1 the whole content can be traversed in ten seconds at full speed
+     * regardless of its size. Default is 0, which disables the scaling.
+     *
+     * @param ratio
+     *            the fraction of the scroll size per second
+     */
+    public void setMaxScrollSpeedRatio(double ratio) {
+        getState().maxScrollSpeedRatio = ratio;
+    }
+
+    public double getMaxScrollSpeedRatio() {
+        return getState(false).maxScrollSpeedRatio;
+    }
+
+    /**
+     * Sets how fast {@link ScrollSpeedProfile#DWELL} accelerates. The speed is
+     * multiplied by {@code 1 + acceleration * seconds} where seconds is the
+     * time the pointer has been dwelling within the scrolling area. Default is
+     * 1.
+     *
+     * @param acceleration
+     *            the growth of the speed multiplier per second
+     */
+    public void setDwellAcceleration(double acceleration) {
+        getState().dwellAcceleration = acceleration;
+    }
+
+    public double getDwellAcceleration() {
+        return getState(false).dwellAcceleration;
+    }
+
+    /**
+     * Sets whether the scrolling should anticipate the pointer movement. In
+     * predictive mode the velocity of the pointer is tracked over the recent
+     * pointer samples, and when the pointer is moving fast towards a scrolling
+     * area, the scrolling starts or speeds up as if the pointer already were
+     * where it's heading. This lets a quick flick towards the edge of a long
+     * component get going before the pointer has even reached the edge. The
+     * prediction is dropped as soon as the pointer stops or turns back.
+     * Default is {@code false}.
+     *
+     * @param predictiveScrolling
+     *            {@code true} to enable predictive scrolling
+     * @see #setPredictionTime(int)
+     */
+    public void setPredictiveScrolling(boolean predictiveScrolling) {
+        getState().predictiveScrolling = predictiveScrolling;
+    }
+
+    public boolean isPredictiveScrolling() {
+        return getState(false).predictiveScrolling;
+    }
+
+    /**
+     * Sets how far ahead the pointer position is predicted when predictive
+     * scrolling is enabled. Longer times make the scrolling react earlier and
+     * harder to fast pointer movements. Default is 200 milliseconds.
+     *
+     * @param milliseconds
+     *            the prediction time
+     * @see #setPredictiveScrolling(boolean)
+     */
+    public void setPredictionTime(int milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException(
+                    "Prediction time must not be negative");
+        }
+        getState().predictionTime = milliseconds;
+    }
+
+    public int getPredictionTime() {
+        return getState(false).predictionTime;
+    }
+
+    /**
+     * Sets whether hovering the dragged item over a scrollbar should jump the
+     * scroll position. The scrollbar track then works like a map of the
+     * content: the top of the vertical track corresponds to the start of the
+     * content, the bottom to the end, and the scroll position follows the
+     * dragged item proportionally while it moves along the track. This lets
+     * an item be moved from one end of a long component to the other in one
+     * gesture instead of waiting for the auto-scrolling to travel the whole
+     * distance. A thin zone at the edge is used when the browser overlays or
+     * hides its scrollbars. Default is {@code false}.
+     *
+     * @param scrollbarJumping
+     *            {@code true} to enable jumping
+     */
+    public void setScrollbarJumping(boolean scrollbarJumping) {
+        getState().scrollbarJumping = scrollbarJumping;
+    }
+
+    public boolean isScrollbarJumping() {
+        return getState(false).scrollbarJumping;
+    }
+
+    /**
+     * Sets whether the scrolling should be handed to the native smooth
+     * scrolling of the browser. Instead of moving the scroll position every
+     * animation frame, the browser is given a target ahead of the current
+     * position, and a new target only when the speed changes or the previous
+     * one is about to be reached. This keeps the motion smooth even when the
+     * main thread is busy, at the cost of less exact speed control. Ignored
+     * by browsers without native smooth scrolling, and by
+     * {@link GridAutoScrollExtension} since the Grid handles its scrolling
+     * itself. Default is {@code false}.
+     *
+     * @param smoothScrolling
+     *            {@code true} to use native smooth scrolling
+     */
+    public void setSmoothScrolling(boolean smoothScrolling) {
+        getState().smoothScrolling = smoothScrolling;
+    }
+
+    public boolean isSmoothScrolling() {
+        return getState(false).smoothScrolling;
+    }
+
+    @Override
+    protected AutoScrollExtensionState getState() {
+        return (AutoScrollExtensionState) super.getState();
+    }
+
+    @Override
+    protected AutoScrollExtensionState getState(boolean markAsDirty) {
+        return (AutoScrollExtensionState) super.getState(markAsDirty);
+    }
+}
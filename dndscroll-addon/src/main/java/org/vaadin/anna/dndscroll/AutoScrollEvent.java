@@ -0,0 +1,78 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.util.EventObject;
+
+import org.vaadin.anna.dndscroll.shared.ScrollDirection;
+
+import com.vaadin.server.ClientConnector;
+
+/**
+ * Event fired when auto-scrolling starts, changes direction or ends.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollEvent extends EventObject {
+
+    public enum Type {
+        /** A drag started auto-scrolling the component. */
+        STARTED,
+        /** The direction of auto-scrolling changed. */
+        DIRECTION_CHANGED,
+        /** The drag ended. */
+        ENDED
+    }
+
+    private final Type type;
+    private final ScrollDirection direction;
+
+    public AutoScrollEvent(AbstractAutoScrollExtension source, Type type,
+            ScrollDirection direction) {
+        super(source);
+        this.type = type;
+        this.direction = direction;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the current direction of auto-scrolling. Always
+     * {@link ScrollDirection#NONE} for {@link Type#STARTED} and
+     * {@link Type#ENDED} events.
+     *
+     * @return the scroll direction
+     */
+    public ScrollDirection getDirection() {
+        return direction;
+    }
+
+    public AbstractAutoScrollExtension getExtension() {
+        return (AbstractAutoScrollExtension) getSource();
+    }
+
+    /**
+     * Returns the extended component.
+     *
+     * @return the component whose auto-scrolling this event is about
+     */
+    public ClientConnector getTarget() {
+        return getExtension().getParent();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.util.EventObject;
+
+import org.vaadin.anna.dndscroll.shared.AutoScrollStatistics;
+
+import com.vaadin.server.ClientConnector;
+
+/**
+ * Event carrying the client-side frame timing statistics of one auto-scrolling
+ * drag. Fired once per drag, after the drag has ended.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollStatisticsEvent extends EventObject {
+
+    private final AutoScrollStatistics statistics;
+
+    public AutoScrollStatisticsEvent(AbstractAutoScrollExtension source,
+            AutoScrollStatistics statistics) {
+        super(source);
+        this.statistics = statistics;
+    }
+
+    public AutoScrollStatistics getStatistics() {
+        return statistics;
+    }
+
+    public AbstractAutoScrollExtension getExtension() {
+        return (AbstractAutoScrollExtension) getSource();
+    }
+
+    /**
+     * Returns the extended component.
+     *
+     * @return the component whose auto-scrolling was measured
+     */
+    public ClientConnector getTarget() {
+        return getExtension().getParent();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import org.vaadin.anna.dndscroll.shared.GridRowReorderServerRpc;
+
+import com.vaadin.server.AbstractExtension;
+import com.vaadin.shared.Registration;
+import com.vaadin.ui.Grid;
+
+/**
+ * Extension that lets the user reorder the rows of a Grid by dragging them.
+ * The rows are dragged with HTML5 drag and drop, and the drop position is
+ * calculated from the row height and the scroll position, so it works for
+ * rows that have not been rendered when the drag started. The extension only
+ * reports the moves, the listeners are responsible for changing the order of
+ * the data. Combine with {@link GridAutoScrollExtension} for scrolling during
+ * the drag.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ * @see ReorderableList
+ */
+public class GridRowReorderExtension extends AbstractExtension {
+
+    private final GridRowReorderServerRpc rpc = new GridRowReorderServerRpc() {
+
+        @Override
+        public void moveRow(int fromIndex, int toIndex) {
+            fireEvent(new RowReorderEvent(GridRowReorderExtension.this,
+                    fromIndex, toIndex));
+        }
+    };
+
+    public GridRowReorderExtension() {
+        registerRpc(rpc);
+    }
+
+    public void extend(Grid<?> target) {
+        super.extend(target);
+    }
+
+    /**
+     * Adds a listener that gets notified when a row has been dragged to a new
+     * position.
+     *
+     * @param listener
+     *            the listener to add
+     * @return registration for removing the listener
+     */
+    public Registration addRowReorderListener(RowReorderListener listener) {
+        return addListener(RowReorderEvent.class, listener,
+                RowReorderListener.ROW_REORDER_METHOD);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.util.Iterator;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.DropHandler;
+import com.vaadin.event.dd.acceptcriteria.AcceptAll;
+import com.vaadin.event.dd.acceptcriteria.AcceptCriterion;
+import com.vaadin.shared.ui.dd.HorizontalDropLocation;
+import com.vaadin.shared.ui.dd.VerticalDropLocation;
+import com.vaadin.ui.AbstractOrderedLayout;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.DragAndDropWrapper;
+import com.vaadin.ui.DragAndDropWrapper.WrapperTargetDetails;
+import com.vaadin.ui.DragAndDropWrapper.WrapperTransferable;
+
+/**
+ * Drop handler that lets the user reorder the components of an ordered layout
+ * by dragging them. The children of the layout are expected to be
+ * {@link DragAndDropWrapper}s, or to contain them, and the handler should be
+ * set to each of the wrappers.
+ * <p>
+ * A drop is turned into a single index-based move: the positions of the
+ * dragged component and the drop target are looked up in one pass over the
+ * layout, and the dragged component is moved directly to its new index.
+ * Drops of components that are not within the layout are ignored.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class LayoutReorderDropHandler implements DropHandler {
+
+    private final AbstractOrderedLayout layout;
+
+    /**
+     * Creates a drop handler for reordering the children of the given layout.
+     *
+     * @param layout
+     *            the layout to reorder, not {@code null}
+     */
+    public LayoutReorderDropHandler(AbstractOrderedLayout layout) {
+        if (layout == null) {
+            throw new IllegalArgumentException("Layout must not be null");
+        }
+        this.layout = layout;
+    }
+
+    @Override
+    public void drop(DragAndDropEvent event) {
+        if (!(event.getTransferable() instanceof WrapperTransferable)) {
+            return;
+        }
+        WrapperTransferable transferable = (WrapperTransferable) event
+                .getTransferable();
+        WrapperTargetDetails details = (WrapperTargetDetails) event
+                .getTargetDetails();
+        Component dragged = getLayoutChild(
+                transferable.getDraggedComponent());
+        Component target = getLayoutChild(details.getTarget());
+        if (dragged == null || target == null || dragged == target) {
+            return;
+        }
+
+        int fromIndex = -1;
+        int targetIndex = -1;
+        Iterator<Component> iterator = layout.iterator();
+        for (int i = 0; iterator.hasNext()
+                && (fromIndex < 0 || targetIndex < 0); ++i) {
+            Component child = iterator.next();
+            if (child == dragged) {
+                fromIndex = i;
+            } else if (child == target) {
+                targetIndex = i;
+            }
+        }
+
+        int toIndex = isBefore(details) ? targetIndex : targetIndex + 1;
+        if (toIndex > fromIndex) {
+            // the components after the dragged one shift once it's removed
+            --toIndex;
+        }
+        if (toIndex != fromIndex) {
+            moveComponent(dragged, toIndex);
+        }
+    }
+
+    /**
+     * Moves a child of the layout to a new index.
+     *
+     * @param component
+     *            the child to move
+     * @param index
+     *            the index the child should have after the move
+     */
+    protected void moveComponent(Component component, int index) {
+        layout.removeComponent(component);
+        layout.addComponent(component, index);
+    }
+
+    public AbstractOrderedLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public AcceptCriterion getAcceptCriterion() {
+        return AcceptAll.get();
+    }
+
+    private static boolean isBefore(WrapperTargetDetails details) {
+        return VerticalDropLocation.TOP.equals(details.getVerticalDropLocation())
+                || HorizontalDropLocation.LEFT
+                        .equals(details.getHorizontalDropLocation());
+    }
+
+    /**
+     * Returns the direct child of the layout that contains the given
+     * component, or {@code null} if the component is not within the layout.
+     */
+    private Component getLayoutChild(Component component) {
+        Component child = component;
+        while (child != null && child.getParent() != layout) {
+            child = child.getParent();
+        }
+        return child;
+    }
+}
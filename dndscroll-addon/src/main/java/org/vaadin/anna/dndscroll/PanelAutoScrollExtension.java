@@ -16,7 +16,6 @@
 
 package org.vaadin.anna.dndscroll;
 
-import com.vaadin.server.AbstractExtension;
 import com.vaadin.ui.Panel;
 
 /**
@@ -25,7 +24,7 @@ import com.vaadin.ui.Panel;
  *
  * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
  */
-public class PanelAutoScrollExtension extends AbstractExtension {
+public class PanelAutoScrollExtension extends AbstractAutoScrollExtension {
 
     public void extend(Panel target) {
         super.extend(target);
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vaadin.anna.dndscroll.shared.PointerTrace;
+
+/**
+ * Reads and writes pointer traces in a simple line based text format:
+ *
+ * <pre>
+ * # DNDScroll pointer trace
+ * bounds &lt;top&gt; &lt;bottom&gt; &lt;left&gt; &lt;right&gt;
+ * scroll &lt;viewport height&gt; &lt;max scroll top&gt; &lt;initial scroll top&gt; &lt;final scroll top&gt;
+ * &lt;timestamp&gt; &lt;x&gt; &lt;y&gt;
+ * ...
+ * </pre>
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public final class PointerTraces {
+
+    private static final String HEADER = "# DNDScroll pointer trace";
+
+    private PointerTraces() {
+        // static helpers only
+    }
+
+    public static void write(PointerTrace trace, Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println(HEADER);
+        out.println("bounds " + trace.getTop() + " " + trace.getBottom() + " "
+                + trace.getLeft() + " " + trace.getRight());
+        out.println("scroll " + trace.getViewportHeight() + " "
+                + trace.getMaxScrollTop() + " " + trace.getInitialScrollTop()
+                + " " + trace.getFinalScrollTop());
+        for (int i = 0; i < trace.size(); ++i) {
+            out.println(trace.getTimestamps()[i] + " " + trace.getX()[i] + " "
+                    + trace.getY()[i]);
+        }
+        out.flush();
+    }
+
+    public static PointerTrace read(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        PointerTrace trace = new PointerTrace();
+        List<double[]> samples = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            try {
+                if ("bounds".equals(fields[0])) {
+                    trace.setTop(Integer.parseInt(fields[1]));
+                    trace.setBottom(Integer.parseInt(fields[2]));
+                    trace.setLeft(Integer.parseInt(fields[3]));
+                    trace.setRight(Integer.parseInt(fields[4]));
+                } else if ("scroll".equals(fields[0])) {
+                    trace.setViewportHeight(Integer.parseInt(fields[1]));
+                    trace.setMaxScrollTop(Integer.parseInt(fields[2]));
+                    trace.setInitialScrollTop(Integer.parseInt(fields[3]));
+                    trace.setFinalScrollTop(Integer.parseInt(fields[4]));
+                } else {
+                    samples.add(new double[] { Double.parseDouble(fields[0]),
+                            Integer.parseInt(fields[1]),
+                            Integer.parseInt(fields[2]) });
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed pointer trace line: " + line,
+                        e);
+            }
+        }
+        double[] timestamps = new double[samples.size()];
+        int[] x = new int[samples.size()];
+        int[] y = new int[samples.size()];
+        for (int i = 0; i < samples.size(); ++i) {
+            double[] sample = samples.get(i);
+            timestamps[i] = sample[0];
+            x[i] = (int) sample[1];
+            y[i] = (int) sample[2];
+        }
+        trace.setTimestamps(timestamps);
+        trace.setX(x);
+        trace.setY(y);
+        return trace;
+    }
+}
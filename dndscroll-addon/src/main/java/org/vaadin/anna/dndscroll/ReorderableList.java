@@ -0,0 +1,172 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.vaadin.data.provider.ListDataProvider;
+import com.vaadin.shared.Registration;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.Grid;
+import com.vaadin.ui.Grid.SelectionMode;
+import com.vaadin.ui.ItemCaptionGenerator;
+
+/**
+ * A list of items that the user can reorder by dragging, with auto-scrolling
+ * built in. Unlike a layout of drag and drop wrappers, the list is a single
+ * component backed by a data provider, and only the visible rows and a small
+ * buffer are rendered on the client, so it scales to very long lists.
+ * <p>
+ * The list is a Grid with a single column, extended with
+ * {@link GridRowReorderExtension} and {@link GridAutoScrollExtension}. The
+ * Grid is available with {@link #getGrid()} for further configuration.
+ *
+ * @param <T>
+ *            the item type
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class ReorderableList<T> extends CustomComponent {
+
+    private final List<T> items = new ArrayList<>();
+    private final ListDataProvider<T> dataProvider = new ListDataProvider<>(
+            items);
+    private final Grid<T> grid = new Grid<>();
+    private final GridRowReorderExtension reorderExtension = new GridRowReorderExtension();
+    private final GridAutoScrollExtension autoScrollExtension = new GridAutoScrollExtension();
+
+    /**
+     * Creates a list that shows the items with their {@code toString()}.
+     *
+     * @param items
+     *            the initial items
+     */
+    public ReorderableList(Collection<T> items) {
+        this(items, String::valueOf);
+    }
+
+    /**
+     * Creates a list that shows the items with the given caption generator.
+     *
+     * @param items
+     *            the initial items
+     * @param captionGenerator
+     *            the caption generator, not {@code null}
+     */
+    public ReorderableList(Collection<T> items,
+            ItemCaptionGenerator<T> captionGenerator) {
+        if (captionGenerator == null) {
+            throw new IllegalArgumentException(
+                    "Caption generator must not be null");
+        }
+        this.items.addAll(items);
+        grid.setDataProvider(dataProvider);
+        grid.addColumn(item -> captionGenerator.apply(item));
+        grid.setHeaderVisible(false);
+        grid.setSelectionMode(SelectionMode.NONE);
+        grid.setSizeFull();
+        reorderExtension.extend(grid);
+        autoScrollExtension.extend(grid);
+        reorderExtension.addRowReorderListener(event -> {
+            // the client might have been out of date
+            if (event.getFromIndex() >= 0 && event.getToIndex() >= 0
+                    && event.getFromIndex() < this.items.size()
+                    && event.getToIndex() <= this.items.size()) {
+                moveItem(event.getFromIndex(), event.getNewIndex());
+            }
+        });
+        setCompositionRoot(grid);
+        setWidth(300, Unit.PIXELS);
+        setHeight(400, Unit.PIXELS);
+    }
+
+    /**
+     * Moves an item to a new position.
+     *
+     * @param fromIndex
+     *            the current index of the item
+     * @param toIndex
+     *            the index the item should have after the move
+     * @throws IndexOutOfBoundsException
+     *             if either index is out of range
+     */
+    public void moveItem(int fromIndex, int toIndex) {
+        checkIndex(fromIndex);
+        checkIndex(toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        // only the items between the two positions shift
+        if (fromIndex < toIndex) {
+            Collections.rotate(items.subList(fromIndex, toIndex + 1), -1);
+        } else {
+            Collections.rotate(items.subList(toIndex, fromIndex + 1), 1);
+        }
+        dataProvider.refreshAll();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= items.size()) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " out of range");
+        }
+    }
+
+    /**
+     * Replaces the items of the list.
+     *
+     * @param items
+     *            the new items
+     */
+    public void setItems(Collection<T> items) {
+        this.items.clear();
+        this.items.addAll(items);
+        dataProvider.refreshAll();
+    }
+
+    /**
+     * Returns the items in their current order.
+     *
+     * @return an unmodifiable view of the items
+     */
+    public List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Adds a listener that gets notified when the user has dragged an item to
+     * a new position. The list has already been reordered when the listener is
+     * called.
+     *
+     * @param listener
+     *            the listener to add
+     * @return registration for removing the listener
+     */
+    public Registration addRowReorderListener(RowReorderListener listener) {
+        return reorderExtension.addRowReorderListener(listener);
+    }
+
+    public Grid<T> getGrid() {
+        return grid;
+    }
+
+    public GridAutoScrollExtension getAutoScrollExtension() {
+        return autoScrollExtension;
+    }
+}
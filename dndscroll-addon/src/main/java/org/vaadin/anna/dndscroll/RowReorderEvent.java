@@ -0,0 +1,81 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.util.EventObject;
+
+import com.vaadin.server.ClientConnector;
+
+/**
+ * Event fired when a row has been dragged to a new position.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class RowReorderEvent extends EventObject {
+
+    private final int fromIndex;
+    private final int toIndex;
+
+    public RowReorderEvent(GridRowReorderExtension source, int fromIndex,
+            int toIndex) {
+        super(source);
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    /**
+     * Returns the index the dragged row had before the drag.
+     *
+     * @return the original row index
+     */
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    /**
+     * Returns the index of the row before which the dragged row was dropped.
+     * The index refers to the order before the move, and equals the row count
+     * if the row was dropped after the last row.
+     *
+     * @return the drop index
+     */
+    public int getToIndex() {
+        return toIndex;
+    }
+
+    /**
+     * Returns the index the dragged row gets once it has been moved.
+     *
+     * @return the new row index
+     */
+    public int getNewIndex() {
+        return toIndex > fromIndex ? toIndex - 1 : toIndex;
+    }
+
+    public GridRowReorderExtension getExtension() {
+        return (GridRowReorderExtension) getSource();
+    }
+
+    /**
+     * Returns the extended component.
+     *
+     * @return the Grid whose row was dragged
+     */
+    public ClientConnector getTarget() {
+        return getExtension().getParent();
+    }
+}
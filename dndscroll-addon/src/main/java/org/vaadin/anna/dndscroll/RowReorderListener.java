@@ -0,0 +1,36 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import com.vaadin.util.ReflectTools;
+
+/**
+ * Listener for rows dragged to a new position.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+@FunctionalInterface
+public interface RowReorderListener extends Serializable {
+
+    public static final Method ROW_REORDER_METHOD = ReflectTools.findMethod(
+            RowReorderListener.class, "rowReordered", RowReorderEvent.class);
+
+    void rowReordered(RowReorderEvent event);
+}
@@ -16,7 +16,9 @@
 
 package org.vaadin.anna.dndscroll;
 
-import com.vaadin.server.AbstractExtension;
+import org.vaadin.anna.dndscroll.shared.TableAutoScrollServerRpc;
+
+import com.vaadin.v7.data.Container;
 import com.vaadin.v7.ui.Table;
 
 /**
@@ -25,9 +27,51 @@ import com.vaadin.v7.ui.Table;
  *
  * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
  */
-public class TableAutoScrollExtension extends AbstractExtension {
+public class TableAutoScrollExtension extends AbstractAutoScrollExtension {
+
+    private final TableAutoScrollServerRpc tableRpc = new TableAutoScrollServerRpc() {
+
+        @Override
+        public void scrolledToRow(int firstVisibleRow) {
+            prefetchRows(firstVisibleRow);
+        }
+    };
+
+    public TableAutoScrollExtension() {
+        registerRpc(tableRpc);
+    }
 
     public void extend(Table target) {
         super.extend(target);
     }
+
+    /**
+     * Called when a drag has made the Table jump to a new scroll position, see
+     * {@link #setScrollbarJumping(boolean)}. The client requests the rows of
+     * the new position right after the jump, so this fetches the item ids of
+     * the page and its cache area from the container beforehand. Containers
+     * that load their items lazily from a backend can then answer the row
+     * request from their own cache. Does nothing for containers that are not
+     * {@link Container.Indexed}.
+     *
+     * @param firstVisibleRow
+     *            the index of the first row visible at the new position
+     */
+    protected void prefetchRows(int firstVisibleRow) {
+        Table table = (Table) getParent();
+        if (table == null || !(table
+                .getContainerDataSource() instanceof Container.Indexed)) {
+            return;
+        }
+        Container.Indexed container = (Container.Indexed) table
+                .getContainerDataSource();
+        int size = container.size();
+        int pageLength = Math.max(1, table.getPageLength());
+        int cacheRows = (int) Math.ceil(pageLength * table.getCacheRate());
+        int start = Math.max(0, Math.min(size, firstVisibleRow) - cacheRows);
+        int end = Math.min(size, firstVisibleRow + pageLength + cacheRows);
+        if (end > start) {
+            container.getItemIds(start, end - start);
+        }
+    }
 }
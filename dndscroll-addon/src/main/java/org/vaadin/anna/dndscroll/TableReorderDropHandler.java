@@ -0,0 +1,359 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.DropHandler;
+import com.vaadin.event.dd.acceptcriteria.AcceptCriterion;
+import com.vaadin.event.dd.acceptcriteria.SourceIsTarget;
+import com.vaadin.shared.ui.dd.VerticalDropLocation;
+import com.vaadin.v7.data.Container;
+import com.vaadin.v7.data.Item;
+import com.vaadin.v7.data.Property;
+import com.vaadin.v7.data.util.AbstractInMemoryContainer;
+import com.vaadin.v7.data.util.BeanContainer;
+import com.vaadin.v7.data.util.BeanItemContainer;
+import com.vaadin.v7.ui.AbstractSelect.AbstractSelectTargetDetails;
+import com.vaadin.v7.ui.Table;
+import com.vaadin.v7.ui.Table.TableTransferable;
+
+/**
+ * Drop handler that lets the user reorder the rows of a Table by dragging
+ * them. The Table must have an in-memory data source, such as an
+ * {@code IndexedContainer} or a bean container, and a row drag mode. Drops on
+ * Tables with other data sources are ignored: moving an item of a persistent
+ * container would mean deleting it from the backend and inserting it again,
+ * which those containers don't support.
+ * <p>
+ * A drop is turned into a single index-based move: the positions of the
+ * dragged rows and the drop target are looked up once, and the items are
+ * removed and added back at their new indexes, instead of walking the
+ * container with {@code prevItemId} and {@code addItemAfter}. Bean containers
+ * keep their beans, and for other containers the property values of the items
+ * are carried over to the re-added items.
+ * <p>
+ * With a multi-select Table and {@link Table.TableDragMode#MULTIROW}, dragging
+ * a selected row moves the whole selection in one drop. The selected rows are
+ * moved as a block that keeps their relative order, and the Table refreshes
+ * its rows once for the whole batch instead of once per added and removed
+ * item.
+ * <p>
+ * A move is all or nothing: if the container fails to remove or add back one
+ * of the items, the items that were already moved are put back at their
+ * original indexes before the error is rethrown.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class TableReorderDropHandler implements DropHandler {
+
+    @Override
+    public void drop(DragAndDropEvent event) {
+        if (!(event.getTransferable() instanceof TableTransferable)) {
+            return;
+        }
+        TableTransferable transferable = (TableTransferable) event
+                .getTransferable();
+        AbstractSelectTargetDetails details = (AbstractSelectTargetDetails) event
+                .getTargetDetails();
+        Table table = (Table) details.getTarget();
+        if (transferable.getSourceComponent() != table
+                || !isReorderable(table.getContainerDataSource())) {
+            return;
+        }
+        Container.Indexed container = (Container.Indexed) table
+                .getContainerDataSource();
+        moveItems(table, getDraggedItemIds(table, transferable.getItemId()),
+                getDropIndex(container, details));
+    }
+
+    /**
+     * Returns the ids of the items that are moved by a drag. If the Table is
+     * multi-select and the dragged row is selected, the whole selection is
+     * moved, otherwise only the dragged row.
+     *
+     * @param table
+     *            the Table
+     * @param draggedItemId
+     *            the id of the row the drag was started from
+     * @return the ids of the items to move
+     */
+    protected Collection<?> getDraggedItemIds(Table table,
+            Object draggedItemId) {
+        if (table.isMultiSelect() && table.getValue() instanceof Collection) {
+            Collection<?> selection = (Collection<?>) table.getValue();
+            if (selection.contains(draggedItemId)) {
+                return selection;
+            }
+        }
+        return Collections.singleton(draggedItemId);
+    }
+
+    /**
+     * Returns the index before which the dropped rows should be placed, in the
+     * order before the move.
+     *
+     * @param container
+     *            the data source of the Table
+     * @param details
+     *            the drop target details
+     * @return the drop index, the container size for dropping after the last
+     *         row
+     */
+    protected int getDropIndex(Container.Indexed container,
+            AbstractSelectTargetDetails details) {
+        Object itemIdOver = details.getItemIdOver();
+        int index = itemIdOver == null ? -1 : container.indexOfId(itemIdOver);
+        if (index < 0) {
+            return container.size();
+        }
+        if (VerticalDropLocation.TOP.equals(details.getDropLocation())) {
+            return index;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Moves the given items of a Table as one block to the given position,
+     * keeping their relative order. A single item is located with
+     * {@link Container.Indexed#indexOfId(Object)}, several items with a single
+     * pass over the container, and the Table is refreshed once after all the
+     * items have been moved. Ids that are not in the container are ignored. If
+     * the move fails, the container is restored to its original order.
+     *
+     * @param table
+     *            the Table, must have an in-memory data source
+     * @param itemIds
+     *            the ids of the items to move
+     * @param dropIndex
+     *            the index before which the items are placed, in the order
+     *            before the move, or the container size to move them to the
+     *            end
+     * @throws IllegalArgumentException
+     *             if the data source of the Table is not an in-memory
+     *             container
+     */
+    public void moveItems(Table table, Collection<?> itemIds, int dropIndex) {
+        if (!isReorderable(table.getContainerDataSource())) {
+            throw new IllegalArgumentException(
+                    "Table must have an in-memory container");
+        }
+        Container.Indexed container = (Container.Indexed) table
+                .getContainerDataSource();
+        Set<?> moved = itemIds instanceof Set ? (Set<?>) itemIds
+                : new HashSet<Object>(itemIds);
+        List<Object> ordered = new ArrayList<>(moved.size());
+        List<Integer> originalIndexes = new ArrayList<>(moved.size());
+        int insertIndex = dropIndex;
+        if (moved.size() == 1) {
+            Object itemId = moved.iterator().next();
+            int index = container.indexOfId(itemId);
+            if (index < 0) {
+                return;
+            }
+            if (index < dropIndex) {
+                --insertIndex;
+            }
+            if (insertIndex == index) {
+                return;
+            }
+            ordered.add(itemId);
+            originalIndexes.add(index);
+        } else {
+            int firstIndex = -1;
+            int lastIndex = -1;
+            int index = 0;
+            for (Object itemId : container.getItemIds()) {
+                if (moved.contains(itemId)) {
+                    ordered.add(itemId);
+                    originalIndexes.add(index);
+                    if (firstIndex < 0) {
+                        firstIndex = index;
+                    }
+                    lastIndex = index;
+                    if (index < dropIndex) {
+                        // the rows before the drop position shift up once the
+                        // moved rows are removed
+                        --insertIndex;
+                    }
+                }
+                ++index;
+                if (ordered.size() == moved.size() && index >= dropIndex) {
+                    break;
+                }
+            }
+            if (ordered.isEmpty() || insertIndex == firstIndex
+                    && lastIndex - firstIndex + 1 == ordered.size()) {
+                // already a block at the drop position
+                return;
+            }
+        }
+
+        // the Table would refresh its rows after every single change
+        boolean suspended = container instanceof Container.ItemSetChangeNotifier;
+        if (suspended) {
+            ((Container.ItemSetChangeNotifier) container)
+                    .removeItemSetChangeListener(table);
+        }
+        List<RemovedItem> removed = new ArrayList<>(ordered.size());
+        try {
+            for (int i = 0; i < ordered.size(); ++i) {
+                removed.add(RemovedItem.remove(container, ordered.get(i),
+                        originalIndexes.get(i)));
+            }
+            for (int i = 0; i < removed.size(); ++i) {
+                removed.get(i).addAt(container, insertIndex + i);
+            }
+        } catch (RuntimeException e) {
+            restore(container, removed, e);
+            throw e;
+        } finally {
+            if (suspended) {
+                ((Container.ItemSetChangeNotifier) container)
+                        .addItemSetChangeListener(table);
+                table.containerItemSetChange(() -> container);
+            }
+        }
+    }
+
+    @Override
+    public AcceptCriterion getAcceptCriterion() {
+        return SourceIsTarget.get();
+    }
+
+    /**
+     * Puts the removed items back at their original indexes after a failed
+     * move. The items that were already added back are removed again first,
+     * and the items are then added in ascending order of their original
+     * indexes, so that every index is valid when it is used.
+     *
+     * @param container
+     *            the container
+     * @param removed
+     *            the items removed so far, in ascending order of their
+     *            original indexes
+     * @param failure
+     *            the error that interrupted the move, any errors from the
+     *            restoring are added to it as suppressed
+     */
+    private static void restore(Container.Indexed container,
+            List<RemovedItem> removed, RuntimeException failure) {
+        for (RemovedItem item : removed) {
+            try {
+                if (container.containsId(item.itemId)) {
+                    container.removeItem(item.itemId);
+                }
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        for (RemovedItem item : removed) {
+            try {
+                if (!container.containsId(item.itemId)) {
+                    item.addAt(container, item.index);
+                }
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the items of the container can be moved by removing them
+     * and adding them back at a new index.
+     *
+     * @param container
+     *            the container to check
+     * @return {@code true} if the container supports the moves
+     */
+    protected boolean isReorderable(Container container) {
+        return container instanceof AbstractInMemoryContainer;
+    }
+
+    /**
+     * An item that has been removed from the container, with whatever is
+     * needed for adding it back.
+     */
+    private static class RemovedItem {
+        private final Object itemId;
+        private final int index;
+        private Object bean;
+        private List<Object> propertyIds;
+        private List<Object> values;
+
+        private RemovedItem(Object itemId, int index) {
+            this.itemId = itemId;
+            this.index = index;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static RemovedItem remove(Container.Indexed container,
+                Object itemId, int index) {
+            RemovedItem removed = new RemovedItem(itemId, index);
+            if (container instanceof BeanContainer) {
+                removed.bean = ((BeanContainer<Object, Object>) container)
+                        .getItem(itemId).getBean();
+            } else if (!(container instanceof BeanItemContainer)) {
+                // for bean item containers the item id is the bean itself
+                Item item = container.getItem(itemId);
+                removed.propertyIds = new ArrayList<>(
+                        item.getItemPropertyIds());
+                removed.values = new ArrayList<>(removed.propertyIds.size());
+                for (Object propertyId : removed.propertyIds) {
+                    removed.values.add(
+                            item.getItemProperty(propertyId).getValue());
+                }
+            }
+            if (!container.removeItem(itemId)) {
+                throw new IllegalStateException(
+                        "Could not remove item " + itemId);
+            }
+            return removed;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addAt(Container.Indexed container, int index) {
+            Item item;
+            if (container instanceof BeanContainer) {
+                item = ((BeanContainer<Object, Object>) container)
+                        .addItemAt(index, itemId, bean);
+            } else {
+                item = container.addItemAt(index, itemId);
+            }
+            if (item == null) {
+                throw new IllegalStateException(
+                        "Could not add back item " + itemId);
+            }
+            if (propertyIds == null) {
+                return;
+            }
+            for (int i = 0; i < propertyIds.size(); ++i) {
+                Property<Object> property = item
+                        .getItemProperty(propertyIds.get(i));
+                if (property != null && !property.isReadOnly()) {
+                    property.setValue(values.get(i));
+                }
+            }
+        }
+    }
+}
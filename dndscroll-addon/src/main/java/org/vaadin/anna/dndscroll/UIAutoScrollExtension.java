@@ -0,0 +1,108 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll;
+
+import org.vaadin.anna.dndscroll.shared.UIAutoScrollExtensionState;
+
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
+
+/**
+ * Extension that enables auto-scrolling for a whole UI with a single
+ * connector. When a drag starts, the nearest scrollable element around the
+ * drag position is scrolled. Drags that start within a component that has its
+ * own auto-scroll extension are left to that extension.
+ * <p>
+ * Which scrollables may be scrolled can be limited with allow and deny rules.
+ * A rule for a component or a style name covers the component and everything
+ * within it. Deny rules take precedence, and if there are no allow rules,
+ * everything that isn't denied is allowed. If the nearest scrollable isn't
+ * allowed, the next one outwards is tried.
+ * <p>
+ * The rules keep references to the components, remove them with
+ * {@link #clearRules()} when the components are discarded.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class UIAutoScrollExtension extends AbstractAutoScrollExtension {
+
+    public void extend(UI target) {
+        super.extend(target);
+    }
+
+    /**
+     * Allows scrolling the scrollables within the given component.
+     *
+     * @param component
+     *            the component to allow
+     */
+    public void allow(Component component) {
+        getState().allowedComponents.add(component);
+    }
+
+    /**
+     * Denies scrolling the scrollables within the given component.
+     *
+     * @param component
+     *            the component to deny
+     */
+    public void deny(Component component) {
+        getState().deniedComponents.add(component);
+    }
+
+    /**
+     * Allows scrolling the scrollables within components that have the given
+     * style name.
+     *
+     * @param styleName
+     *            the style name to allow
+     */
+    public void allowStyleName(String styleName) {
+        getState().allowedStyleNames.add(styleName);
+    }
+
+    /**
+     * Denies scrolling the scrollables within components that have the given
+     * style name.
+     *
+     * @param styleName
+     *            the style name to deny
+     */
+    public void denyStyleName(String styleName) {
+        getState().deniedStyleNames.add(styleName);
+    }
+
+    /**
+     * Removes all the allow and deny rules.
+     */
+    public void clearRules() {
+        getState().allowedComponents.clear();
+        getState().deniedComponents.clear();
+        getState().allowedStyleNames.clear();
+        getState().deniedStyleNames.clear();
+    }
+
+    @Override
+    protected UIAutoScrollExtensionState getState() {
+        return (UIAutoScrollExtensionState) super.getState();
+    }
+
+    @Override
+    protected UIAutoScrollExtensionState getState(boolean markAsDirty) {
+        return (UIAutoScrollExtensionState) super.getState(markAsDirty);
+    }
+}
@@ -16,21 +16,22 @@
 
 package org.vaadin.anna.dndscroll.client;
 
-import com.google.gwt.animation.client.AnimationScheduler;
-import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
-import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import org.vaadin.anna.dndscroll.shared.AutoScrollExtensionState;
+import org.vaadin.anna.dndscroll.shared.AutoScrollPhysics;
+import org.vaadin.anna.dndscroll.shared.AutoScrollServerRpc;
+import org.vaadin.anna.dndscroll.shared.PointerTrace;
+import org.vaadin.anna.dndscroll.shared.ScrollDirection;
+
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.event.dom.client.MouseUpEvent;
 import com.google.gwt.event.dom.client.MouseUpHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
-import com.google.gwt.user.client.Event;
-import com.google.gwt.user.client.Event.NativePreviewEvent;
-import com.google.gwt.user.client.Event.NativePreviewHandler;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Widget;
 import com.vaadin.client.ComponentConnector;
 import com.vaadin.client.ServerConnector;
-import com.vaadin.client.WidgetUtil;
 import com.vaadin.client.extensions.AbstractExtensionConnector;
 import com.vaadin.client.ui.dd.VDragAndDropManager;
 import com.vaadin.client.ui.dd.VTransferable;
@@ -43,30 +44,48 @@ import com.vaadin.client.ui.dd.VTransferable;
  */
 public abstract class AbstractAutoScrollExtensionConnector
         extends AbstractExtensionConnector
-        implements CustomDragAndDropManager.DragStartOrEndHandler {
+        implements CustomDragAndDropManager.ScrollContainer {
 
-    private static final int SCROLL_TOP_SPEED_PX_SEC = 800;
-    private static final int MIN_NO_AUTOSCROLL_AREA_PX = 50;
+    private static final int DIRECTION_REPORT_THROTTLE_MS = 250;
+    /** Minimum thickness of the scrollbar zones for scrollbar jumping. */
+    private static final int SCROLLBAR_JUMP_ZONE_MIN_PX = 16;
     private int scrollAreaPX = 100;
 
     private HandlerRegistration dragEventsHandler;
-    private HandlerRegistration handlerRegistration;
-    private AutoScrollingFrame horizontalAutoScroller;
-    private AutoScrollingFrame verticalAutoScroller;
+    private PointerTracker pointerTracker;
+    private AutoScrollingFrame autoScroller;
 
     protected Element element;
     protected Element scrollable;
+    protected ScrollGeometry geometry;
+    private boolean smoothScrolling = false;
+    private AbstractAutoScrollExtensionConnector parentScroller;
+    private AutoScrollStatisticsRecorder statistics;
+    private PointerTraceRecorder traceRecorder;
 
     private int pageY;
     private int pageX;
-    private int startingBound;
-    private int endingBound;
-    private int gradientArea;
+    private int pointerSample = 0;
     protected ComponentConnector connector;
     protected Widget widget;
 
+    private ScrollDirection scrollDirection = ScrollDirection.NONE;
+    private ScrollDirection reportedDirection = ScrollDirection.NONE;
+    private double lastDirectionReport = 0;
+    private final Timer directionReporter = new Timer() {
+        @Override
+        public void run() {
+            reportScrollDirection();
+        }
+    };
+
     public abstract Element getScrollTarget();
 
+    @Override
+    public AutoScrollExtensionState getState() {
+        return (AutoScrollExtensionState) super.getState();
+    }
+
     @Override
     protected void extend(ServerConnector target) {
         connector = (ComponentConnector) target;
@@ -75,8 +94,7 @@ public abstract class AbstractAutoScrollExtensionConnector
 
         CustomDragAndDropManager manager = (CustomDragAndDropManager) VDragAndDropManager
                 .get();
-        dragEventsHandler = manager.addHandler(
-                CustomDragAndDropManager.DragStartOrEndEvent.TYPE, this);
+        dragEventsHandler = registerScrollContainer(manager);
         MouseUpHandler mouseUpHandler = new MouseUpHandler() {
             @Override
             public void onMouseUp(MouseUpEvent event) {
@@ -86,75 +104,283 @@ public abstract class AbstractAutoScrollExtensionConnector
         widget.addDomHandler(mouseUpHandler, MouseUpEvent.getType());
     }
 
+    /**
+     * Registers this connector to the drag and drop manager so that it gets
+     * notified of the relevant drags. By default the drags that start within
+     * the extended component are relevant.
+     *
+     * @param manager
+     *            the drag and drop manager
+     * @return registration for removing this connector from the manager
+     */
+    protected HandlerRegistration registerScrollContainer(
+            CustomDragAndDropManager manager) {
+        return manager.addScrollContainer(element, this);
+    }
+
     @Override
     public void onDragStarted(VTransferable transferable,
             NativeEvent startEvent) {
         stopAndCleanup();
 
-        if (connector.equals(transferable.getDragSource())
-                || widget.getElement().isOrHasChild(transferable.getDragSource()
-                        .getWidget().getElement())) {
-            handlerRegistration = Event
-                    .addNativePreviewHandler(new NativePreviewHandler() {
-
+        // the manager only notifies the scroll containers that contain the
+        // drag source, so the pointer is tracked only for the relevant drags
+        // and only for as long as they last
+        if (pointerTracker == null) {
+            pointerTracker = new PointerTracker(
+                    new PointerTracker.PointerMoveHandler() {
                         @Override
-                        public void onPreviewNativeEvent(
-                                NativePreviewEvent event) {
-                            NativeEvent nativeEvent = event.getNativeEvent();
-                            if (Event.ONMOUSEMOVE == event.getTypeInt()
-                                    && NativeEvent.BUTTON_LEFT == nativeEvent
-                                            .getButton()) {
-                                if (scrollable == null) {
-                                    scrollable = getScrollTarget();
-                                }
-                                if (horizontalAutoScroller == null
-                                        && verticalAutoScroller == null) {
-                                    startAutoScroller(nativeEvent);
-                                } else {
-                                    updateAutoScroller(nativeEvent);
-                                }
-                            }
+                        public void onPointerMove(int clientX, int clientY) {
+                            storePointerCoords(clientX, clientY);
                         }
-
                     });
         }
+        pointerTracker.start();
+    }
+
+    /**
+     * Only stores the latest pointer coordinates, all the calculations are
+     * done once per animation frame when the frames process the new sample.
+     * Starts the auto-scrolling if it isn't running yet.
+     *
+     * @param clientX
+     *            horizontal pointer coordinate
+     * @param clientY
+     *            vertical pointer coordinate
+     */
+    protected void storePointerCoords(int clientX, int clientY) {
+        pageX = clientX;
+        pageY = clientY;
+        ++pointerSample;
+        if (autoScroller == null) {
+            startAutoScroller();
+        }
+        if (traceRecorder != null) {
+            traceRecorder.add(clientX, clientY);
+        }
+        AutoScrollScheduler.get().schedule(autoScroller);
+    }
+
+    /**
+     * Starts the auto-scrolling for a drag that started within this
+     * component, along with the enclosing scrollers.
+     */
+    private void startAutoScroller() {
+        startFrame();
+        if (getState().statisticsEnabled) {
+            statistics = new AutoScrollStatisticsRecorder();
+        }
+        if (getState().pointerTraceRecording) {
+            traceRecorder = new PointerTraceRecorder(geometry);
+        }
+        notifyAutoScrollStarted();
+    }
+
+    /**
+     * Starts the auto-scrolling as an enclosing scroller of a drag that
+     * started within a nested component. The frame of this component is
+     * driven by the frame of the nested one, so the statistics and the pointer
+     * trace of the drag are recorded by the innermost scroller only. The
+     * component does get auto-scrolled, though, so the server events are sent
+     * and {@link #onAutoScrollStarted()} and {@link #onAutoScrollStopped()}
+     * are called the same way as for the innermost scroller.
+     */
+    private void startAsEnclosingScroller() {
+        startFrame();
+        notifyAutoScrollStarted();
+    }
+
+    private void startFrame() {
+        if (scrollable == null) {
+            scrollable = getScrollTarget();
+        }
+        geometry = createGeometry();
+        geometry.observe();
+        smoothScrolling = getState().smoothScrolling
+                && geometry.supportsSmoothScrolling();
+        autoScroller = new AutoScrollingFrame();
+        if (parentScroller != null) {
+            // the enclosing scrollers don't run loops of their own, their
+            // frames are driven by ours
+            if (parentScroller.autoScroller == null) {
+                parentScroller.startAsEnclosingScroller();
+            }
+            autoScroller.parentFrame = parentScroller.autoScroller;
+        }
+        autoScroller.start();
+    }
+
+    private void notifyAutoScrollStarted() {
+        if (getState().autoScrollEvents) {
+            getRpcProxy(AutoScrollServerRpc.class).autoScrollStarted();
+        }
+        onAutoScrollStarted();
+    }
+
+    /**
+     * Updates the current scroll direction based on the frames, and reports
+     * changes to the server if it's interested in them. Reports are throttled
+     * so that a pointer jittering at the edge of a scrolling area doesn't
+     * flood the server.
+     */
+    private void updateScrollDirection() {
+        ScrollDirection direction = ScrollDirection.NONE;
+        if (autoScroller != null) {
+            double verticalRatio = autoScroller.vertical.physics
+                    .getScrollRatio();
+            double horizontalRatio = autoScroller.horizontal.physics
+                    .getScrollRatio();
+            if (verticalRatio != 0) {
+                direction = verticalRatio < 0 ? ScrollDirection.UP
+                        : ScrollDirection.DOWN;
+            } else if (horizontalRatio != 0) {
+                direction = horizontalRatio < 0 ? ScrollDirection.LEFT
+                        : ScrollDirection.RIGHT;
+            }
+        }
+        if (direction == scrollDirection) {
+            return;
+        }
+        scrollDirection = direction;
+        if (!getState().autoScrollEvents) {
+            return;
+        }
+        double sinceLastReport = Duration.currentTimeMillis()
+                - lastDirectionReport;
+        if (sinceLastReport >= DIRECTION_REPORT_THROTTLE_MS) {
+            reportScrollDirection();
+        } else {
+            directionReporter.schedule(
+                    (int) (DIRECTION_REPORT_THROTTLE_MS - sinceLastReport));
+        }
+    }
+
+    private void reportScrollDirection() {
+        directionReporter.cancel();
+        if (scrollDirection != reportedDirection) {
+            reportedDirection = scrollDirection;
+            lastDirectionReport = Duration.currentTimeMillis();
+            getRpcProxy(AutoScrollServerRpc.class)
+                    .scrollDirectionChanged(scrollDirection);
+        }
+    }
+
+    /**
+     * Creates the geometry cache for a drag. Implementations that don't scroll
+     * the DOM element directly can override this to provide their own scroll
+     * position handling.
+     *
+     * @return the geometry cache for the scroll target
+     */
+    protected ScrollGeometry createGeometry() {
+        return new ScrollGeometry(element, scrollable);
     }
 
-    private void startAutoScroller(NativeEvent nativeEvent) {
-        updateScrollBounds(ScrollAxis.HORIZONTAL);
-        horizontalAutoScroller = new AutoScrollingFrame(ScrollAxis.HORIZONTAL,
-                startingBound, endingBound, gradientArea);
-        horizontalAutoScroller.start();
-        updateScrollBounds(ScrollAxis.VERTICAL);
-        verticalAutoScroller = new AutoScrollingFrame(ScrollAxis.VERTICAL,
-                startingBound, endingBound, gradientArea);
-        verticalAutoScroller.start();
+    /**
+     * Called when the auto-scrolling of this component gets started for a
+     * drag, also when the drag started within a nested auto-scrolling
+     * component. Does nothing by default.
+     */
+    protected void onAutoScrollStarted() {
+        // NOP
     }
 
-    private void updateAutoScroller(NativeEvent nativeEvent) {
-        pageY = WidgetUtil.getTouchOrMouseClientY(nativeEvent);
-        pageX = WidgetUtil.getTouchOrMouseClientX(nativeEvent);
-        horizontalAutoScroller.updatePointerCoords(pageX, pageY);
-        verticalAutoScroller.updatePointerCoords(pageX, pageY);
+    /**
+     * Called when the auto-scrolling of this component has been stopped. Does
+     * nothing by default.
+     */
+    protected void onAutoScrollStopped() {
+        // NOP
+    }
+
+    /**
+     * Called in the write phase of the frame when the scroll position has
+     * jumped because the dragged item is hovered over a scrollbar, see
+     * {@link AutoScrollExtensionState#scrollbarJumping}. Does nothing by
+     * default.
+     *
+     * @param axis
+     *            the scrolling axis
+     * @param position
+     *            the new scroll position
+     */
+    protected void onScrollbarJump(ScrollAxis axis, int position) {
+        // NOP
+    }
+
+    /**
+     * Gives the implementations a chance to limit the speed that has been
+     * calculated for the current frame, e.g. to keep lazy loading up with the
+     * scrolling. Called during the read phase of the frame, so the cached
+     * {@link #geometry} may be used but the DOM must not be modified. Returns
+     * the speed unchanged by default.
+     *
+     * @param axis
+     *            the scrolling axis
+     * @param speed
+     *            the calculated speed in pixels per second, negative when
+     *            scrolling towards the start
+     * @return the speed to use
+     */
+    protected double limitScrollSpeed(ScrollAxis axis, double speed) {
+        return speed;
+    }
+
+    @Override
+    public void setParentScrollContainer(
+            CustomDragAndDropManager.ScrollContainer parent) {
+        if (parent instanceof AbstractAutoScrollExtensionConnector) {
+            parentScroller = (AbstractAutoScrollExtensionConnector) parent;
+        } else {
+            parentScroller = null;
+        }
     }
 
     @Override
     public void onDragEnded() {
         stopAndCleanup();
+        parentScroller = null;
     }
 
-    private void stopAndCleanup() {
-        if (horizontalAutoScroller != null) {
-            horizontalAutoScroller.stop();
-            horizontalAutoScroller = null;
+    /**
+     * Stops the auto-scrolling and releases everything that was reserved for
+     * the drag.
+     */
+    protected void stopAndCleanup() {
+        boolean wasStarted = autoScroller != null;
+        if (autoScroller != null) {
+            autoScroller.stop();
+            autoScroller = null;
+        }
+        if (pointerTracker != null) {
+            pointerTracker.stop();
+        }
+        PointerTrace trace = null;
+        if (traceRecorder != null) {
+            trace = traceRecorder.finish(geometry);
+            traceRecorder = null;
         }
-        if (verticalAutoScroller != null) {
-            verticalAutoScroller.stop();
-            verticalAutoScroller = null;
+        if (geometry != null) {
+            geometry.disconnect();
+            geometry = null;
         }
-        if (handlerRegistration != null) {
-            handlerRegistration.removeHandler();
-            handlerRegistration = null;
+        if (wasStarted) {
+            directionReporter.cancel();
+            scrollDirection = ScrollDirection.NONE;
+            reportedDirection = ScrollDirection.NONE;
+            if (getState().autoScrollEvents) {
+                getRpcProxy(AutoScrollServerRpc.class).autoScrollEnded();
+            }
+            if (statistics != null) {
+                getRpcProxy(AutoScrollServerRpc.class)
+                        .statisticsReported(statistics.finish());
+                statistics = null;
+            }
+            if (trace != null) {
+                getRpcProxy(AutoScrollServerRpc.class)
+                        .pointerTraceRecorded(trace);
+            }
+            onAutoScrollStopped();
         }
     }
 
@@ -172,105 +398,182 @@ public abstract class AbstractAutoScrollExtensionConnector
         VERTICAL, HORIZONTAL
     }
 
-    private class AutoScrollingFrame implements AnimationCallback {
-
-        private static final int GRADIENT_MIN_THRESHOLD_PX = 10;
-        private static final int SCROLL_AREA_REBOUND_PX_PER_SEC = 1;
-        private static final double SCROLL_AREA_REBOUND_PX_PER_MS = SCROLL_AREA_REBOUND_PX_PER_SEC
-                / 1000.0d;
-
-        private int startBound = -1;
-        private int endBound = -1;
-        private final int gradientArea;
-        private double scrollSpeed = 0;
-        private double prevTimestamp = 0;
-        private double pixelsToScroll = 0.0d;
+    /**
+     * The auto-scrolling of one component along both axes. Both axes are
+     * calculated in the read phase of the same animation frame and applied
+     * with a single scroll position update in the write phase.
+     */
+    private class AutoScrollingFrame
+            implements AutoScrollScheduler.FrameTask {
+
+        private final AxisScroller horizontal = new AxisScroller(
+                ScrollAxis.HORIZONTAL);
+        private final AxisScroller vertical = new AxisScroller(
+                ScrollAxis.VERTICAL);
+        private int geometryGeneration = -1;
+        private int processedPointerSample = 0;
+        private double prevTimestamp = -1;
         private boolean running = false;
-        private AnimationHandle handle;
-        private int scrollingAxisPageCoordinate;
-        private int finalStartBound;
-        private int finalEndBound;
-        private boolean scrollAreaShouldRebound = false;
-        private ScrollAxis scrollAxis;
-        private int pageX;
-        private int pageY;
-
-        public AutoScrollingFrame(ScrollAxis scrollAxis, final int startBound,
-                final int endBound, final int gradientArea) {
-            this.scrollAxis = scrollAxis;
-            finalStartBound = startBound;
-            finalEndBound = endBound;
-            this.gradientArea = gradientArea;
+        private AutoScrollingFrame parentFrame;
+
+        /**
+         * Takes the scroll bounds from the cached geometry if it has been
+         * re-measured since the previous call.
+         */
+        private void updateFinalBounds() {
+            int generation = geometry.getGeneration();
+            if (generation == geometryGeneration) {
+                return;
+            }
+            geometryGeneration = generation;
+            horizontal.updateScrollBounds();
+            vertical.updateScrollBounds();
         }
 
         @Override
-        public void execute(final double timestamp) {
-            final double timeDiff = timestamp - prevTimestamp;
+        public void read(final double timestamp) {
+            double start = statistics != null
+                    ? AutoScrollStatisticsRecorder.now() : 0;
+            read(timestamp, pointerSample,
+                    AbstractAutoScrollExtensionConnector.this.pageX,
+                    AbstractAutoScrollExtensionConnector.this.pageY, 0, 0,
+                    false, false);
+            if (statistics != null) {
+                statistics.frame(timestamp);
+                statistics.addExecutionTime(
+                        AutoScrollStatisticsRecorder.now() - start);
+            }
+        }
+
+        /**
+         * Calculates the scrolling for this frame and the frames of the
+         * enclosing scrollers. The innermost scroller wins: an enclosing
+         * scroller only scrolls along an axis when no scroller inside it is
+         * scrolling along that axis, and takes over any scrolling that the
+         * inner one couldn't do because it already reached the end of its
+         * scroll range.
+         */
+        private void read(double timestamp, int sample, int x, int y,
+                int chainedPixelsX, int chainedPixelsY,
+                boolean childScrollingX, boolean childScrollingY) {
+            if (!running) {
+                return;
+            }
+            final double timeDiff = prevTimestamp < 0 ? 0
+                    : timestamp - prevTimestamp;
             prevTimestamp = timestamp;
 
-            reboundScrollArea(timeDiff);
-            pixelsToScroll += scrollSpeed * (timeDiff / 1000.0d);
-            final int intPixelsToScroll = (int) pixelsToScroll;
-            pixelsToScroll -= intPixelsToScroll;
-            if (intPixelsToScroll != 0) {
-                double scrollPos = scrollAxis == ScrollAxis.VERTICAL
-                        ? scrollable.getScrollTop()
-                        : scrollable.getScrollLeft();
-                double maxScrollPos = scrollAxis == ScrollAxis.VERTICAL
-                        ? scrollable.getScrollHeight()
-                                - scrollable.getOffsetHeight()
-                        : scrollable.getScrollWidth()
-                                - scrollable.getOffsetWidth();
-                if (intPixelsToScroll > 0 && scrollPos < maxScrollPos
-                        || intPixelsToScroll < 0 && scrollPos > 0) {
-                    if (ScrollAxis.VERTICAL == scrollAxis) {
-                        scrollable.setScrollTop(
-                                (int) (scrollPos + intPixelsToScroll));
-                    } else {
-                        scrollable.setScrollLeft(
-                                (int) (scrollPos + intPixelsToScroll));
-                    }
+            updateFinalBounds();
+            if (processedPointerSample != sample) {
+                processedPointerSample = sample;
+                boolean within = geometry.contains(x, y);
+                if (within && getState().scrollbarJumping) {
+                    // hovering a scrollbar replaces the auto-scrolling
+                    boolean jumped = horizontal.jump(x, y);
+                    jumped = vertical.jump(x, y) || jumped;
+                    within = !jumped;
                 }
+                horizontal.physics.updatePointerCoords(x, within, timestamp);
+                vertical.physics.updatePointerCoords(y, within, timestamp);
+            }
+            int leftoverX = horizontal.read(timestamp, timeDiff,
+                    chainedPixelsX, childScrollingX);
+            int leftoverY = vertical.read(timestamp, timeDiff,
+                    chainedPixelsY, childScrollingY);
+            if (parentFrame != null) {
+                parentFrame.read(timestamp, sample, x, y, leftoverX,
+                        leftoverY, childScrollingX || horizontal.scrolling,
+                        childScrollingY || vertical.scrolling);
             }
-            reschedule();
         }
 
-        private void reboundScrollArea(double timeDiff) {
-            if (!scrollAreaShouldRebound) {
+        @Override
+        public void write() {
+            if (!running) {
                 return;
             }
+            double start = statistics != null
+                    ? AutoScrollStatisticsRecorder.now() : 0;
+            applyScrollPosition();
+            reschedule();
+            if (statistics != null) {
+                statistics.addExecutionTime(
+                        AutoScrollStatisticsRecorder.now() - start);
+            }
+        }
 
-            int reboundPx = (int) Math
-                    .ceil(SCROLL_AREA_REBOUND_PX_PER_MS * timeDiff);
-            if (startBound < finalStartBound) {
-                startBound += reboundPx;
-                startBound = Math.min(startBound, finalStartBound);
-                updateScrollSpeed(scrollingAxisPageCoordinate);
-            } else if (endBound > finalEndBound) {
-                endBound -= reboundPx;
-                endBound = Math.max(endBound, finalEndBound);
-                updateScrollSpeed(scrollingAxisPageCoordinate);
+        /**
+         * Writes the scroll positions of this frame and the enclosing frames.
+         *
+         * @return {@code true} if this or an enclosing scroller changed its
+         *         scroll position, i.e. the content of this scroller may have
+         *         moved on the screen
+         */
+        private boolean applyScrollPosition() {
+            boolean scrolled = false;
+            if (running) {
+                applySmoothScroll();
+                if (horizontal.scrollPending || vertical.scrollPending) {
+                    int previousLeft = geometry
+                            .getScrollPosition(ScrollAxis.HORIZONTAL);
+                    int previousTop = geometry
+                            .getScrollPosition(ScrollAxis.VERTICAL);
+                    geometry.setScrollPosition(
+                            horizontal.scrollPending
+                                    ? horizontal.pendingScrollPos
+                                    : previousLeft,
+                            vertical.scrollPending ? vertical.pendingScrollPos
+                                    : previousTop);
+                    horizontal.scrollPending = false;
+                    vertical.scrollPending = false;
+                    horizontal.applyJump();
+                    vertical.applyJump();
+                    int deltaLeft = geometry
+                            .getScrollPosition(ScrollAxis.HORIZONTAL)
+                            - previousLeft;
+                    int deltaTop = geometry
+                            .getScrollPosition(ScrollAxis.VERTICAL)
+                            - previousTop;
+                    scrolled = deltaLeft != 0 || deltaTop != 0;
+                    if (statistics != null) {
+                        statistics.addPixelsScrolled(deltaLeft);
+                        statistics.addPixelsScrolled(deltaTop);
+                    }
+                }
+                updateScrollDirection();
+            }
+            if (parentFrame != null && parentFrame.applyScrollPosition()) {
+                // the enclosing scroller moved this component, the cached
+                // bounds are out of date
+                geometry.invalidate();
+                return true;
             }
+            return scrolled;
         }
 
-        private void updateScrollSpeed(final int pointerPageCordinate) {
-            final double ratio;
-            if (pageY < scrollable.getAbsoluteTop()
-                    || pageY > scrollable.getAbsoluteBottom()
-                    || pageX < scrollable.getAbsoluteLeft()
-                    || pageX > scrollable.getAbsoluteRight()) {
-                ratio = 0;
-            } else if (pointerPageCordinate < startBound) {
-                final double distance = pointerPageCordinate - startBound;
-                ratio = Math.max(-1, distance / gradientArea);
-            } else if (pointerPageCordinate > endBound) {
-                final double distance = pointerPageCordinate - endBound;
-                ratio = Math.min(1, distance / gradientArea);
+        /**
+         * Hands the new smooth scroll targets to the browser. Both axes go
+         * into the same call, since a new smooth scroll replaces the one in
+         * progress: an axis that keeps its target passes it again, and an
+         * axis that stops passes its current position.
+         */
+        private void applySmoothScroll() {
+            boolean retarget = horizontal.pendingSmoothTarget != -1
+                    || vertical.pendingSmoothTarget != -1;
+            boolean stop = horizontal.pendingSmoothStop
+                    || vertical.pendingSmoothStop;
+            if (!retarget && !stop) {
+                return;
+            }
+            if (horizontal.smoothTarget == -1
+                    && vertical.smoothTarget == -1) {
+                geometry.stopSmoothScroll();
             } else {
-                ratio = 0;
+                geometry.smoothScrollTo(horizontal.getSmoothScrollTarget(),
+                        vertical.getSmoothScrollTarget());
             }
-
-            scrollSpeed = ratio * SCROLL_TOP_SPEED_PX_SEC;
+            horizontal.clearPendingSmoothScroll();
+            vertical.clearPendingSmoothScroll();
         }
 
         public void start() {
@@ -280,72 +583,221 @@ public abstract class AbstractAutoScrollExtensionConnector
 
         public void stop() {
             running = false;
-
-            if (handle != null) {
-                handle.cancel();
-                handle = null;
+            if (horizontal.smoothTarget != -1
+                    || vertical.smoothTarget != -1) {
+                // don't let the browser carry on past the drop
+                geometry.stopSmoothScroll();
             }
+            horizontal.reset();
+            vertical.reset();
+            AutoScrollScheduler.get().cancel(this);
         }
 
+        /**
+         * Requests the next frame only if there is something to animate,
+         * otherwise the loop is parked until a new pointer sample is stored.
+         */
         private void reschedule() {
-            if (running && gradientArea >= GRADIENT_MIN_THRESHOLD_PX) {
-                handle = AnimationScheduler.get().requestAnimationFrame(this,
-                        scrollable);
+            if (running && isMoving()) {
+                AutoScrollScheduler.get().schedule(this);
+            } else {
+                park();
+            }
+        }
+
+        private void park() {
+            prevTimestamp = -1;
+            horizontal.physics.park();
+            vertical.physics.park();
+            if (statistics != null) {
+                statistics.parked();
+            }
+            if (parentFrame != null) {
+                parentFrame.park();
             }
         }
 
-        public void updatePointerCoords(int pageX, int pageY) {
-            this.pageX = pageX;
-            this.pageY = pageY;
-            final int pageCordinate = scrollAxis == ScrollAxis.VERTICAL ? pageY
-                    : pageX;
-            doScrollAreaChecks(pageCordinate);
-            updateScrollSpeed(pageCordinate);
-            scrollingAxisPageCoordinate = pageCordinate;
+        private boolean isMoving() {
+            // the ratio is used instead of the speed so that the loop keeps
+            // running even if the speed has been limited to zero for a while
+            return horizontal.physics.isMoving()
+                    || vertical.physics.isMoving()
+                    || parentFrame != null && parentFrame.running
+                            && parentFrame.isMoving();
+        }
+    }
+
+    /**
+     * The scrolling state of one axis within a frame.
+     */
+    private class AxisScroller {
+
+        private static final double SMOOTH_LOOKAHEAD_SECONDS = 0.5d;
+        private static final double SMOOTH_RETARGET_MARGIN_SECONDS = 0.25d;
+        private static final double SMOOTH_RETARGET_SPEED_CHANGE = 0.1d;
+
+        private final AutoScrollPhysics physics = new AutoScrollPhysics();
+        private final ScrollAxis scrollAxis;
+        private int pendingScrollPos;
+        private boolean scrollPending = false;
+        private boolean scrolling = false;
+        private boolean jumping = false;
+        private double smoothSpeed = 0;
+        private int smoothTarget = -1;
+        private int pendingSmoothTarget = -1;
+        private boolean pendingSmoothStop = false;
+
+        private AxisScroller(ScrollAxis scrollAxis) {
+            this.scrollAxis = scrollAxis;
+        }
+
+        private void updateScrollBounds() {
+            physics.updateScrollBounds(geometry.getStart(scrollAxis),
+                    geometry.getEnd(scrollAxis), scrollAreaPX);
         }
 
-        private void doScrollAreaChecks(int pageCordinate) {
-            if (startBound == -1) {
-                startBound = Math.min(finalStartBound, pageCordinate);
-                endBound = Math.max(finalEndBound, pageCordinate);
+        /**
+         * Calculates the scrolling of this axis for the frame.
+         *
+         * @return the pixels that couldn't be scrolled because the end of the
+         *         scroll range has been reached
+         */
+        private int read(double timestamp, double timeDiff,
+                int chainedPixels, boolean childScrolling) {
+            if (jumping) {
+                scrolling = true;
+                return 0;
+            }
+            physics.reboundScrollArea(timeDiff);
+            double scrollSpeed = limitScrollSpeed(scrollAxis,
+                    physics.calculateScrollSpeed(timestamp, getState(),
+                            geometry.getMaxScrollPosition(scrollAxis)));
+            int intPixelsToScroll = physics.advance(scrollSpeed, timeDiff);
+            if (childScrolling) {
+                intPixelsToScroll = 0;
+            } else if (intPixelsToScroll == 0) {
+                intPixelsToScroll = chainedPixels;
+            }
+            int leftoverPixels = 0;
+            if (smoothScrolling) {
+                double speed = childScrolling ? 0 : scrollSpeed;
+                if (speed == 0 && intPixelsToScroll != 0 && timeDiff > 0) {
+                    // scrolling chained from the inner scroller
+                    speed = intPixelsToScroll * 1000.0d / timeDiff;
+                }
+                scrolling = readSmoothScroll(speed);
+                if (!scrolling) {
+                    leftoverPixels = intPixelsToScroll;
+                }
             } else {
-                int oldTopBound = startBound;
-                if (startBound < finalStartBound) {
-                    startBound = Math.max(startBound,
-                            Math.min(finalStartBound, pageCordinate));
+                if (intPixelsToScroll != 0) {
+                    int scrollPos = geometry.getScrollPosition(scrollAxis);
+                    int maxScrollPos = geometry
+                            .getMaxScrollPosition(scrollAxis);
+                    if (intPixelsToScroll > 0 && scrollPos < maxScrollPos
+                            || intPixelsToScroll < 0 && scrollPos > 0) {
+                        // may be negative, the geometry clamps it
+                        pendingScrollPos = scrollPos + intPixelsToScroll;
+                        scrollPending = true;
+                    } else {
+                        leftoverPixels = intPixelsToScroll;
+                    }
                 }
+                scrolling = scrollPending;
+            }
+            return leftoverPixels;
+        }
 
-                int oldBottomBound = endBound;
-                if (endBound > finalEndBound) {
-                    endBound = Math.min(endBound,
-                            Math.max(finalEndBound, pageCordinate));
-                }
+        /**
+         * Jumps to the position matching the pointer if it's over the
+         * scrollbar track of this axis.
+         *
+         * @return {@code true} if the pointer is over the track
+         */
+        private boolean jump(int x, int y) {
+            int position = geometry.getScrollbarTrackPosition(scrollAxis, x,
+                    y, SCROLLBAR_JUMP_ZONE_MIN_PX);
+            if (position == -1) {
+                return false;
+            }
+            // an instant scroll cancels any smooth scroll in progress
+            smoothTarget = -1;
+            smoothSpeed = 0;
+            clearPendingSmoothScroll();
+            pendingScrollPos = position;
+            scrollPending = true;
+            jumping = true;
+            return true;
+        }
 
-                final boolean startDidNotMove = oldTopBound == startBound;
-                final boolean endDidNotMove = oldBottomBound == endBound;
-                final boolean wasMovement = pageCordinate != scrollingAxisPageCoordinate;
-                scrollAreaShouldRebound = (startDidNotMove && endDidNotMove
-                        && wasMovement);
+        private void applyJump() {
+            if (jumping) {
+                jumping = false;
+                onScrollbarJump(scrollAxis,
+                        geometry.getScrollPosition(scrollAxis));
             }
         }
-    }
 
-    private void updateScrollBounds(ScrollAxis scrollAxis) {
-        if (ScrollAxis.VERTICAL == scrollAxis) {
-            startingBound = element.getAbsoluteTop() + 1 + scrollAreaPX;
-            endingBound = element.getAbsoluteBottom() - 1 - scrollAreaPX;
-        } else {
-            startingBound = element.getAbsoluteLeft() + 1 + scrollAreaPX;
-            endingBound = element.getAbsoluteRight() - 1 - scrollAreaPX;
+        /**
+         * Keeps a native smooth scroll going at roughly the given speed. The
+         * browser is given a target some way ahead, and a new one only when
+         * the speed has changed noticeably or the previous target is about to
+         * be reached, so most frames don't touch the DOM at all.
+         *
+         * @return {@code true} if this axis is scrolling
+         */
+        private boolean readSmoothScroll(double speed) {
+            int scrollPos = geometry.getScrollPosition(scrollAxis);
+            int maxScrollPos = geometry.getMaxScrollPosition(scrollAxis);
+            if (!(speed > 0 && scrollPos < maxScrollPos
+                    || speed < 0 && scrollPos > 0)) {
+                if (smoothTarget != -1) {
+                    pendingSmoothStop = true;
+                    pendingSmoothTarget = -1;
+                    smoothTarget = -1;
+                    smoothSpeed = 0;
+                }
+                return false;
+            }
+            boolean speedChanged = Math.signum(speed) != Math
+                    .signum(smoothSpeed)
+                    || Math.abs(speed - smoothSpeed) > Math.abs(smoothSpeed)
+                            * SMOOTH_RETARGET_SPEED_CHANGE;
+            boolean targetNear = Math.abs(smoothTarget - scrollPos) < Math
+                    .abs(speed) * SMOOTH_RETARGET_MARGIN_SECONDS;
+            if (smoothTarget == -1 || speedChanged || targetNear) {
+                smoothSpeed = speed;
+                smoothTarget = Math.max(0, Math.min(maxScrollPos, scrollPos
+                        + (int) (speed * SMOOTH_LOOKAHEAD_SECONDS)));
+                pendingSmoothTarget = smoothTarget;
+                pendingSmoothStop = false;
+            }
+            return true;
+        }
+
+        /**
+         * Returns the position this axis should be smooth scrolled to.
+         *
+         * @return the active target, or the current position if this axis
+         *         isn't smooth scrolling
+         */
+        private int getSmoothScrollTarget() {
+            return smoothTarget != -1 ? smoothTarget
+                    : geometry.getScrollPosition(scrollAxis);
+        }
+
+        private void clearPendingSmoothScroll() {
+            pendingSmoothTarget = -1;
+            pendingSmoothStop = false;
         }
-        gradientArea = scrollAreaPX;
 
-        if (endingBound - startingBound < MIN_NO_AUTOSCROLL_AREA_PX) {
-            double adjustment = MIN_NO_AUTOSCROLL_AREA_PX
-                    - (endingBound - startingBound);
-            startingBound -= adjustment / 2;
-            endingBound += adjustment / 2;
-            gradientArea -= adjustment / 2;
+        private void reset() {
+            scrollPending = false;
+            scrolling = false;
+            jumping = false;
+            smoothTarget = -1;
+            smoothSpeed = 0;
+            clearPendingSmoothScroll();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+
+/**
+ * Page-global animation frame scheduler shared by all auto-scroll connectors.
+ * Only one animation frame callback is requested at a time, and within each
+ * frame all scheduled tasks get to do their DOM reads before any of them
+ * writes, so the scrolling of multiple components never interleaves reads and
+ * writes.
+ * <p>
+ * Like with {@code requestAnimationFrame}, a scheduled task is run once and
+ * must schedule itself again if it needs the next frame as well.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollScheduler implements AnimationCallback {
+
+    /**
+     * A task that is run in two phases within an animation frame.
+     */
+    public interface FrameTask {
+        /**
+         * Reads the DOM and calculates the changes to make.
+         *
+         * @param timestamp
+         *            the animation frame timestamp
+         */
+        void read(double timestamp);
+
+        /**
+         * Applies the changes calculated in {@link #read(double)}. Must not
+         * read layout dependent values from the DOM.
+         */
+        void write();
+    }
+
+    private static AutoScrollScheduler instance;
+
+    private List<FrameTask> scheduled = new ArrayList<FrameTask>();
+    private List<FrameTask> running = new ArrayList<FrameTask>();
+    private AnimationHandle handle;
+
+    public static AutoScrollScheduler get() {
+        if (instance == null) {
+            instance = new AutoScrollScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules the task to be run in the next animation frame. Scheduling an
+     * already scheduled task does nothing.
+     *
+     * @param task
+     *            the task to run
+     */
+    public void schedule(FrameTask task) {
+        if (!scheduled.contains(task)) {
+            scheduled.add(task);
+        }
+        if (handle == null) {
+            handle = AnimationScheduler.get().requestAnimationFrame(this);
+        }
+    }
+
+    /**
+     * Removes the task from the next animation frame.
+     *
+     * @param task
+     *            the task to remove
+     */
+    public void cancel(FrameTask task) {
+        scheduled.remove(task);
+        if (scheduled.isEmpty() && handle != null) {
+            handle.cancel();
+            handle = null;
+        }
+    }
+
+    public boolean isScheduled(FrameTask task) {
+        return scheduled.contains(task);
+    }
+
+    @Override
+    public void execute(double timestamp) {
+        handle = null;
+
+        // swap the lists so that tasks can reschedule themselves
+        List<FrameTask> tasks = scheduled;
+        scheduled = running;
+        running = tasks;
+
+        for (FrameTask task : tasks) {
+            task.read(timestamp);
+        }
+        for (FrameTask task : tasks) {
+            task.write();
+        }
+        tasks.clear();
+    }
+}
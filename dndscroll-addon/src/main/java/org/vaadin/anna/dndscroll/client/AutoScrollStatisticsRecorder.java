@@ -0,0 +1,121 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.vaadin.anna.dndscroll.shared.AutoScrollStatistics;
+
+/**
+ * Records the frame timing statistics of one auto-scrolling drag.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollStatisticsRecorder {
+
+    private static final double FRAME_INTERVAL_MS = 1000.0d / 60;
+
+    private final double startTime = now();
+    private final List<Double> frameTimes = new ArrayList<Double>();
+    private double lastFrameTimestamp = -1;
+    private double lastRecordedTimestamp = -1;
+    private int frameCount = 0;
+    private int droppedFrames = 0;
+    private double executionTime = 0;
+    private int pixelsScrolled = 0;
+
+    /**
+     * Records an animation frame. Multiple calls with the same timestamp are
+     * counted as one frame.
+     *
+     * @param timestamp
+     *            the animation frame timestamp
+     */
+    public void frame(double timestamp) {
+        if (timestamp == lastRecordedTimestamp) {
+            return;
+        }
+        lastRecordedTimestamp = timestamp;
+        ++frameCount;
+        if (lastFrameTimestamp >= 0) {
+            double frameTime = timestamp - lastFrameTimestamp;
+            frameTimes.add(frameTime);
+            droppedFrames += Math.max(0,
+                    (int) Math.round(frameTime / FRAME_INTERVAL_MS) - 1);
+        }
+        lastFrameTimestamp = timestamp;
+    }
+
+    /**
+     * Marks the animation loop parked, the time until the next frame is not
+     * counted as frame time.
+     */
+    public void parked() {
+        lastFrameTimestamp = -1;
+    }
+
+    public void addExecutionTime(double milliseconds) {
+        executionTime += milliseconds;
+    }
+
+    public void addPixelsScrolled(int pixels) {
+        pixelsScrolled += Math.abs(pixels);
+    }
+
+    /**
+     * Ends the recording.
+     *
+     * @return the statistics of the drag
+     */
+    public AutoScrollStatistics finish() {
+        AutoScrollStatistics statistics = new AutoScrollStatistics();
+        statistics.setFrameCount(frameCount);
+        statistics.setDroppedFrames(droppedFrames);
+        statistics.setExecutionTime(executionTime);
+        statistics.setPixelsScrolled(pixelsScrolled);
+        statistics.setDragDuration(now() - startTime);
+        if (!frameTimes.isEmpty()) {
+            Collections.sort(frameTimes);
+            statistics.setFrameTimeMedian(percentile(0.5));
+            statistics.setFrameTime95thPercentile(percentile(0.95));
+            statistics.setFrameTime99thPercentile(percentile(0.99));
+            statistics.setFrameTimeMax(frameTimes.get(frameTimes.size() - 1));
+        }
+        return statistics;
+    }
+
+    private double percentile(double fraction) {
+        int index = (int) Math.ceil(fraction * frameTimes.size()) - 1;
+        return frameTimes.get(Math.max(0, index));
+    }
+
+    /**
+     * Returns a high resolution timestamp in milliseconds if the browser
+     * supports one.
+     *
+     * @return the current time in milliseconds
+     */
+    public static native double now()
+    /*-{
+        if ($wnd.performance && $wnd.performance.now) {
+            return $wnd.performance.now();
+        }
+        return new Date().getTime();
+    }-*/;
+}
@@ -16,7 +16,15 @@
 
 package org.vaadin.anna.dndscroll.client;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.event.shared.EventBus;
 import com.google.gwt.event.shared.EventHandler;
@@ -24,13 +32,25 @@ import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.event.shared.HasHandlers;
 import com.google.gwt.event.shared.SimpleEventBus;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.Event.NativePreviewEvent;
+import com.google.gwt.user.client.Event.NativePreviewHandler;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.UIDL;
 import com.vaadin.client.ui.dd.VDragAndDropManager;
 import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.client.ui.dd.VDragEventServerCallback;
+import com.vaadin.client.ui.dd.VDropHandler;
 import com.vaadin.client.ui.dd.VTransferable;
 
 /**
  * Custom implementation for VDragAndDropManager with extra handling for drag
  * events.
+ * <p>
+ * The manager replaces the default one, so it's always part of the initial
+ * widgetset fragment. It only knows the scroll containers through the
+ * {@link ScrollContainer} interface, so that the auto-scroll connectors and
+ * everything they use can be loaded lazily.
  *
  * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
  */
@@ -39,32 +59,277 @@ public class CustomDragAndDropManager extends VDragAndDropManager implements
 
     private EventBus eventBus = GWT.create(SimpleEventBus.class);
 
+    private final Map<Element, ScrollContainer> scrollContainers = new HashMap<Element, ScrollContainer>();
+    private final List<ScrollContainer> activeScrollContainers = new ArrayList<ScrollContainer>();
+    private ScrollContainer fallbackScrollContainer;
+    private final Map<String, AcceptVerdict> acceptVerdicts = new HashMap<String, AcceptVerdict>();
+    private HandlerRegistration dragEndTracker;
+
     @Override
     public VDragEvent startDrag(VTransferable transferable,
             NativeEvent startEvent, boolean handleDragEvents) {
+        invalidateAcceptVerdicts();
+        startDragEndTracking();
         VDragEvent sd = super.startDrag(transferable, startEvent, handleDragEvents);
         fireEvent(new DragStartOrEndEvent(transferable, startEvent));
+        notifyScrollContainers(transferable, startEvent);
         return sd;
     }
 
     @Override
     public void endDrag() {
+        stopDragEndTracking();
         fireEvent(new DragStartOrEndEvent());
+        notifyScrollContainersEnded();
+        invalidateAcceptVerdicts();
         super.endDrag();
     }
 
     @Override
     public void interruptDrag() {
+        stopDragEndTracking();
         fireEvent(new DragStartOrEndEvent());
+        notifyScrollContainersEnded();
+        invalidateAcceptVerdicts();
         super.interruptDrag();
     }
 
+    /**
+     * Makes sure the drag gets ended when the mouse button is released, even
+     * if the release happens somewhere the default drag handling doesn't see
+     * it. Registered only for the duration of a drag, so that plain clicks
+     * don't pay for it.
+     * <p>
+     * Preview handlers run in reverse order of registration, so the handler
+     * that the default drag handling registers later sees the mouseup first
+     * and usually ends the drag already. The tracker then has nothing left to
+     * do.
+     */
+    private void startDragEndTracking() {
+        stopDragEndTracking();
+        dragEndTracker = Event
+                .addNativePreviewHandler(new NativePreviewHandler() {
+                    @Override
+                    public void onPreviewNativeEvent(NativePreviewEvent event) {
+                        // the handler can't be removed in the middle of the
+                        // dispatch, check that the drag is still going on
+                        if (Event.ONMOUSEUP == event.getTypeInt()
+                                && dragEndTracker != null
+                                && getCurrentDragEvent() != null) {
+                            endDrag();
+                        }
+                    }
+                });
+    }
+
+    private void stopDragEndTracking() {
+        if (dragEndTracker != null) {
+            dragEndTracker.removeHandler();
+            dragEndTracker = null;
+        }
+    }
+
+    /**
+     * Asks the server whether the current drop target accepts the drag,
+     * unless it has already been asked with the same drop details during this
+     * drag. While auto-scrolling, the same rows and components keep passing
+     * under the pointer, and without caching each of them would cost a server
+     * round-trip every time for server-side accept criteria.
+     * <p>
+     * The mouse event details are not part of the cache key, so criteria that
+     * depend on the exact pointer position should invalidate the cache with
+     * {@link #invalidateAcceptVerdicts()}.
+     */
+    @Override
+    public void visitServer(final VDragEventServerCallback acceptedCallback) {
+        final String key = getAcceptVerdictKey();
+        if (key == null) {
+            super.visitServer(acceptedCallback);
+            return;
+        }
+        AcceptVerdict verdict = acceptVerdicts.get(key);
+        if (verdict != null) {
+            acceptedCallback.handleResponse(verdict.accepted,
+                    verdict.response);
+            return;
+        }
+        super.visitServer(new VDragEventServerCallback() {
+            @Override
+            public void handleResponse(boolean accepted, UIDL response) {
+                acceptVerdicts.put(key, new AcceptVerdict(accepted, response));
+                acceptedCallback.handleResponse(accepted, response);
+            }
+        });
+    }
+
+    /**
+     * Forgets all the accept verdicts cached during the current drag. The
+     * cache is also cleared automatically when a drag starts or ends.
+     */
+    public void invalidateAcceptVerdicts() {
+        acceptVerdicts.clear();
+    }
+
+    /**
+     * Forgets the accept verdicts cached for the given drop target during the
+     * current drag, e.g. when its contents have changed so that the server
+     * might answer differently.
+     *
+     * @param dropTarget
+     *            the connector of the drop target
+     */
+    public void invalidateAcceptVerdicts(ComponentConnector dropTarget) {
+        String prefix = dropTarget.getConnectorId() + "|";
+        Iterator<String> keys = acceptVerdicts.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith(prefix)) {
+                keys.remove();
+            }
+        }
+    }
+
+    private String getAcceptVerdictKey() {
+        VDropHandler dropHandler = getCurrentDropHandler();
+        VDragEvent drag = getCurrentDragEvent();
+        if (dropHandler == null || dropHandler.getConnector() == null
+                || drag == null) {
+            return null;
+        }
+        Map<String, Object> details = new TreeMap<String, Object>(
+                drag.getDropDetails());
+        // changes with every pointer move
+        details.remove("mouseEvent");
+        return dropHandler.getConnector().getConnectorId() + "|" + details;
+    }
+
+    private static class AcceptVerdict {
+        private final boolean accepted;
+        private final UIDL response;
+
+        private AcceptVerdict(boolean accepted, UIDL response) {
+            this.accepted = accepted;
+            this.response = response;
+        }
+    }
+
+    /**
+     * Registers a scroll container that should be notified when a drag starts
+     * from within the given element, or when such a drag ends. Unlike handlers
+     * added with {@link #addHandler(GwtEvent.Type, EventHandler)}, scroll
+     * containers are looked up by walking the ancestors of the drag source, so
+     * only the containers that contain the drag source are involved. Of those
+     * only the innermost one is notified of the drag start, the enclosing ones
+     * are linked to it as its parents for scroll chaining.
+     *
+     * @param element
+     *            the root element of the scroll container
+     * @param handler
+     *            the handler to notify
+     * @return registration for removing the scroll container
+     */
+    public HandlerRegistration addScrollContainer(final Element element,
+            final ScrollContainer handler) {
+        scrollContainers.put(element, handler);
+        return new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                if (scrollContainers.get(element) == handler) {
+                    scrollContainers.remove(element);
+                }
+                activeScrollContainers.remove(handler);
+            }
+        };
+    }
+
+    /**
+     * Sets the scroll container that is notified of the drags that don't
+     * start within any of the scroll containers added with
+     * {@link #addScrollContainer(Element, ScrollContainer)}. There can only be
+     * one such container at a time.
+     *
+     * @param handler
+     *            the handler to notify
+     * @return registration for removing the fallback scroll container
+     */
+    public HandlerRegistration setFallbackScrollContainer(
+            final ScrollContainer handler) {
+        fallbackScrollContainer = handler;
+        return new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                if (fallbackScrollContainer == handler) {
+                    fallbackScrollContainer = null;
+                }
+                activeScrollContainers.remove(handler);
+            }
+        };
+    }
+
+    private void notifyScrollContainers(VTransferable transferable,
+            NativeEvent startEvent) {
+        notifyScrollContainersEnded();
+        ComponentConnector dragSource = transferable.getDragSource();
+        if (dragSource != null && !scrollContainers.isEmpty()) {
+            Element element = dragSource.getWidget().getElement();
+            while (element != null) {
+                ScrollContainer handler = scrollContainers.get(element);
+                if (handler != null) {
+                    activeScrollContainers.add(handler);
+                }
+                element = element.getParentElement();
+            }
+        }
+        if (activeScrollContainers.isEmpty()) {
+            if (fallbackScrollContainer != null) {
+                activeScrollContainers.add(fallbackScrollContainer);
+            } else {
+                return;
+            }
+        }
+        for (int i = 0; i < activeScrollContainers.size(); ++i) {
+            activeScrollContainers.get(i).setParentScrollContainer(
+                    i + 1 < activeScrollContainers.size()
+                            ? activeScrollContainers.get(i + 1) : null);
+        }
+        activeScrollContainers.get(0).onDragStarted(transferable, startEvent);
+    }
+
+    private void notifyScrollContainersEnded() {
+        if (activeScrollContainers.isEmpty()) {
+            return;
+        }
+        List<ScrollContainer> handlers = new ArrayList<ScrollContainer>(
+                activeScrollContainers);
+        activeScrollContainers.clear();
+        for (ScrollContainer handler : handlers) {
+            handler.onDragEnded();
+        }
+    }
+
     public interface DragStartOrEndHandler extends EventHandler {
         void onDragStarted(VTransferable transferable, NativeEvent startEvent);
 
         void onDragEnded();
     }
 
+    /**
+     * Handler for a registered scroll container. When a drag starts, the
+     * containers of the drag source are linked from the innermost to the
+     * outermost and only the innermost one gets
+     * {@link #onDragStarted(VTransferable, NativeEvent)}. All of them get
+     * {@link #onDragEnded()}.
+     */
+    public interface ScrollContainer extends DragStartOrEndHandler {
+        /**
+         * Sets the closest enclosing scroll container of the drag source, or
+         * {@code null} if there is none.
+         *
+         * @param parent
+         *            the enclosing scroll container
+         */
+        void setParentScrollContainer(ScrollContainer parent);
+    }
+
     public static class DragStartOrEndEvent extends
             GwtEvent<DragStartOrEndHandler> {
         public static Type<DragStartOrEndHandler> TYPE = new Type<DragStartOrEndHandler>();
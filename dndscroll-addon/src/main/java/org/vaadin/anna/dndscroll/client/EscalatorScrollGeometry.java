@@ -0,0 +1,106 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import org.vaadin.anna.dndscroll.client.AbstractAutoScrollExtensionConnector.ScrollAxis;
+
+import com.google.gwt.dom.client.Element;
+import com.vaadin.client.widget.escalator.ScrollbarBundle;
+import com.vaadin.client.widgets.Escalator;
+
+/**
+ * Geometry cache for a Grid. The scrolling goes through the Escalator API so
+ * that the row virtualization and data fetching of the Grid keep up with it.
+ * Escalator keeps track of its scroll position and scroll size itself, so
+ * those are read directly without touching the layout, and only the bounds
+ * and the viewport size are cached.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class EscalatorScrollGeometry extends ScrollGeometry {
+
+    private final Escalator escalator;
+
+    public EscalatorScrollGeometry(Element element, Escalator escalator) {
+        super(element, escalator.getElement());
+        this.escalator = escalator;
+    }
+
+    @Override
+    public int getScrollPosition(ScrollAxis axis) {
+        return readScrollPosition(axis);
+    }
+
+    @Override
+    public int getMaxScrollPosition(ScrollAxis axis) {
+        return Math.max(0, measureScrollSize(axis) - getViewportSize(axis));
+    }
+
+    @Override
+    public boolean supportsSmoothScrolling() {
+        // Escalator only follows its own scroll position updates
+        return false;
+    }
+
+    @Override
+    protected int readScrollPosition(ScrollAxis axis) {
+        return (int) (ScrollAxis.VERTICAL == axis ? escalator.getScrollTop()
+                : escalator.getScrollLeft());
+    }
+
+    @Override
+    protected void writeScrollPosition(ScrollAxis axis, int position) {
+        if (ScrollAxis.VERTICAL == axis) {
+            escalator.setScrollTop(position);
+        } else {
+            escalator.setScrollLeft(position);
+        }
+    }
+
+    @Override
+    protected int measureScrollSize(ScrollAxis axis) {
+        return (int) (ScrollAxis.VERTICAL == axis ? escalator.getScrollHeight()
+                : escalator.getScrollWidth());
+    }
+
+    @Override
+    protected int measureScrollbarSize(ScrollAxis axis) {
+        // Escalator draws its scrollbars in elements of their own
+        ScrollbarBundle scrollbar = ScrollAxis.VERTICAL == axis
+                ? escalator.getVerticalScrollbar()
+                : escalator.getHorizontalScrollbar();
+        return scrollbar.showsScrollHandle()
+                ? scrollbar.getScrollbarThickness() : 0;
+    }
+
+    @Override
+    protected int measureViewportSize(ScrollAxis axis) {
+        if (ScrollAxis.VERTICAL == axis) {
+            // only the body scrolls, the header and footer stay in place
+            return scrollable.getOffsetHeight()
+                    - escalator.getHeader().getElement().getOffsetHeight()
+                    - escalator.getFooter().getElement().getOffsetHeight();
+        }
+        return scrollable.getOffsetWidth();
+    }
+
+    @Override
+    protected boolean isObservingMutations() {
+        // Escalator recycles its rows while scrolling
+        return false;
+    }
+}
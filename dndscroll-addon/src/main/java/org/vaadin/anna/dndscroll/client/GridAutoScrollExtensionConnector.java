@@ -0,0 +1,116 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.event.dom.client.DragEndEvent;
+import com.google.gwt.event.dom.client.DragEndHandler;
+import com.google.gwt.event.dom.client.DragStartEvent;
+import com.google.gwt.event.dom.client.DragStartHandler;
+import com.google.gwt.event.dom.client.DropEvent;
+import com.google.gwt.event.dom.client.DropHandler;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.widgets.Escalator;
+import com.vaadin.client.widgets.Grid;
+import com.vaadin.shared.ui.Connect;
+import com.vaadin.shared.ui.Connect.LoadStyle;
+
+/**
+ * Connector for GridAutoScrollExtension.
+ * <p>
+ * Besides drags handled by the legacy drag and drop manager, HTML5 drags that
+ * start within the Grid are supported as well. During those the pointer
+ * coordinates are taken from the dragover events of the whole document, since
+ * no mouse events are fired while a native drag is in progress, and the drag
+ * may leave the Grid.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+@Connect(value = org.vaadin.anna.dndscroll.GridAutoScrollExtension.class,
+        loadStyle = LoadStyle.LAZY)
+public class GridAutoScrollExtensionConnector extends
+        AbstractAutoScrollExtensionConnector {
+
+    private boolean nativeDrag = false;
+    private PointerTracker dragOverTracker;
+
+    @Override
+    protected void extend(ServerConnector target) {
+        super.extend(target);
+
+        widget.addDomHandler(new DragStartHandler() {
+            @Override
+            public void onDragStart(DragStartEvent event) {
+                stopAndCleanup();
+                nativeDrag = true;
+                if (dragOverTracker == null) {
+                    dragOverTracker = new PointerTracker(
+                            new PointerTracker.PointerMoveHandler() {
+                                @Override
+                                public void onPointerMove(int clientX,
+                                        int clientY) {
+                                    if (nativeDrag) {
+                                        storePointerCoords(clientX, clientY);
+                                    }
+                                }
+                            }, true);
+                }
+                dragOverTracker.start();
+            }
+        }, DragStartEvent.getType());
+        widget.addDomHandler(new DragEndHandler() {
+            @Override
+            public void onDragEnd(DragEndEvent event) {
+                endNativeDrag();
+            }
+        }, DragEndEvent.getType());
+        widget.addDomHandler(new DropHandler() {
+            @Override
+            public void onDrop(DropEvent event) {
+                endNativeDrag();
+            }
+        }, DropEvent.getType());
+    }
+
+    private void endNativeDrag() {
+        if (nativeDrag) {
+            nativeDrag = false;
+            dragOverTracker.stop();
+            stopAndCleanup();
+        }
+    }
+
+    @Override
+    public void onUnregister() {
+        endNativeDrag();
+        super.onUnregister();
+    }
+
+    @Override
+    public Element getScrollTarget() {
+        return getEscalator().getElement();
+    }
+
+    @Override
+    protected ScrollGeometry createGeometry() {
+        return new EscalatorScrollGeometry(element, getEscalator());
+    }
+
+    private Escalator getEscalator() {
+        return ((Grid<?>) widget).getEscalator();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import org.vaadin.anna.dndscroll.shared.GridRowReorderServerRpc;
+
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.Style.Position;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.DragEndEvent;
+import com.google.gwt.event.dom.client.DragEndHandler;
+import com.google.gwt.event.dom.client.DragOverEvent;
+import com.google.gwt.event.dom.client.DragOverHandler;
+import com.google.gwt.event.dom.client.DragStartEvent;
+import com.google.gwt.event.dom.client.DragStartHandler;
+import com.google.gwt.event.dom.client.DropEvent;
+import com.google.gwt.event.dom.client.DropHandler;
+import com.google.gwt.user.client.Window;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.extensions.AbstractExtensionConnector;
+import com.vaadin.client.widgets.Escalator;
+import com.vaadin.client.widgets.Grid;
+import com.vaadin.shared.ui.Connect;
+import com.vaadin.shared.ui.Connect.LoadStyle;
+
+/**
+ * Connector for GridRowReorderExtension.
+ * <p>
+ * The body rows of the Grid are made draggable with HTML5 drag and drop. The
+ * Escalator recycles the row elements while scrolling, so the rows are never
+ * identified by their elements: both the dragged row and the drop position
+ * are calculated from the pointer position, the scroll position and the row
+ * height.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+@Connect(value = org.vaadin.anna.dndscroll.GridRowReorderExtension.class,
+        loadStyle = LoadStyle.LAZY)
+public class GridRowReorderExtensionConnector
+        extends AbstractExtensionConnector {
+
+    private static final String DROP_INDICATOR_STYLE = "dndscroll-drop-indicator";
+
+    private Grid<?> grid;
+    private int draggedRow = -1;
+    private DivElement dropIndicator;
+
+    @Override
+    protected void extend(ServerConnector target) {
+        grid = (Grid<?>) ((ComponentConnector) target).getWidget();
+        getEscalator().getBody().getElement()
+                .setDraggable(Element.DRAGGABLE_TRUE);
+
+        grid.addDomHandler(new DragStartHandler() {
+            @Override
+            public void onDragStart(DragStartEvent event) {
+                draggedRow = getRowIndex(event.getNativeEvent().getClientY(),
+                        false);
+                if (draggedRow >= 0) {
+                    // Firefox doesn't start the drag without data
+                    event.setData("text", String.valueOf(draggedRow));
+                }
+            }
+        }, DragStartEvent.getType());
+        grid.addDomHandler(new DragOverHandler() {
+            @Override
+            public void onDragOver(DragOverEvent event) {
+                if (draggedRow >= 0) {
+                    event.preventDefault();
+                    showDropIndicator(getRowIndex(
+                            event.getNativeEvent().getClientY(), true));
+                }
+            }
+        }, DragOverEvent.getType());
+        grid.addDomHandler(new DropHandler() {
+            @Override
+            public void onDrop(DropEvent event) {
+                if (draggedRow >= 0) {
+                    event.preventDefault();
+                    int dropIndex = getRowIndex(
+                            event.getNativeEvent().getClientY(), true);
+                    if (dropIndex >= 0 && dropIndex != draggedRow
+                            && dropIndex != draggedRow + 1) {
+                        getRpcProxy(GridRowReorderServerRpc.class)
+                                .moveRow(draggedRow, dropIndex);
+                    }
+                }
+                endDrag();
+            }
+        }, DropEvent.getType());
+        grid.addDomHandler(new DragEndHandler() {
+            @Override
+            public void onDragEnd(DragEndEvent event) {
+                endDrag();
+            }
+        }, DragEndEvent.getType());
+    }
+
+    /**
+     * Calculates the row index for a vertical pointer position.
+     *
+     * @param clientY
+     *            the vertical pointer position within the viewport
+     * @param boundary
+     *            {@code true} for the index of the closest row boundary, i.e.
+     *            the row before which a drop would go, {@code false} for the
+     *            index of the row under the pointer
+     * @return the row index, or -1 if the position is not within the rows
+     */
+    private int getRowIndex(int clientY, boolean boundary) {
+        Escalator escalator = getEscalator();
+        int rowCount = escalator.getBody().getRowCount();
+        double rowHeight = escalator.getBody().getDefaultRowHeight();
+        if (rowCount == 0 || rowHeight <= 0) {
+            return boundary ? 0 : -1;
+        }
+        double position = getPositionWithinRows(clientY) / rowHeight;
+        if (boundary) {
+            return Math.max(0, Math.min(rowCount, (int) Math.round(position)));
+        }
+        int index = (int) Math.floor(position);
+        return index >= 0 && index < rowCount ? index : -1;
+    }
+
+    /*
+     * The header doesn't scroll vertically, so its bottom edge is where the
+     * scrolled body content starts.
+     */
+    private double getPositionWithinRows(int clientY) {
+        Escalator escalator = getEscalator();
+        int bodyTop = escalator.getHeader().getElement().getAbsoluteBottom()
+                - Window.getScrollTop();
+        return clientY - bodyTop + escalator.getScrollTop();
+    }
+
+    private void showDropIndicator(int dropIndex) {
+        Escalator escalator = getEscalator();
+        if (dropIndicator == null) {
+            dropIndicator = Document.get().createDivElement();
+            dropIndicator.setClassName(DROP_INDICATOR_STYLE);
+            dropIndicator.getStyle().setPosition(Position.ABSOLUTE);
+            dropIndicator.getStyle().setLeft(0, Unit.PX);
+            dropIndicator.getStyle().setRight(0, Unit.PX);
+            dropIndicator.getStyle().setHeight(2, Unit.PX);
+            dropIndicator.getStyle().setZIndex(10);
+            dropIndicator.getStyle().setBackgroundColor("#197de1");
+            dropIndicator.getStyle().setProperty("pointerEvents", "none");
+            grid.getElement().appendChild(dropIndicator);
+        }
+        int gridTop = grid.getElement().getAbsoluteTop();
+        int bodyTop = escalator.getHeader().getElement().getAbsoluteBottom()
+                - gridTop;
+        int bodyBottom = escalator.getFooter().getElement().getAbsoluteTop()
+                - gridTop;
+        double top = bodyTop
+                + dropIndex * escalator.getBody().getDefaultRowHeight()
+                - escalator.getScrollTop();
+        if (top < bodyTop || top > bodyBottom) {
+            // the drop position has been scrolled out of view
+            dropIndicator.getStyle().setDisplay(Display.NONE);
+            return;
+        }
+        dropIndicator.getStyle().setTop(top - 1, Unit.PX);
+        dropIndicator.getStyle().clearDisplay();
+    }
+
+    private void endDrag() {
+        draggedRow = -1;
+        if (dropIndicator != null) {
+            dropIndicator.getStyle().setDisplay(Display.NONE);
+        }
+    }
+
+    private Escalator getEscalator() {
+        return grid.getEscalator();
+    }
+
+    @Override
+    public void onUnregister() {
+        super.onUnregister();
+        if (dropIndicator != null) {
+            dropIndicator.removeFromParent();
+            dropIndicator = null;
+        }
+    }
+}
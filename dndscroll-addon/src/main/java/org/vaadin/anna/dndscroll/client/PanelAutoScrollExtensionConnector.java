@@ -19,13 +19,15 @@ package org.vaadin.anna.dndscroll.client;
 import com.google.gwt.dom.client.Element;
 import com.vaadin.client.ui.VPanel;
 import com.vaadin.shared.ui.Connect;
+import com.vaadin.shared.ui.Connect.LoadStyle;
 
 /**
  * Connector for PanelAutoScrollExtension.
  *
  * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
  */
-@Connect(org.vaadin.anna.dndscroll.PanelAutoScrollExtension.class)
+@Connect(value = org.vaadin.anna.dndscroll.PanelAutoScrollExtension.class,
+        loadStyle = LoadStyle.LAZY)
 public class PanelAutoScrollExtensionConnector extends
         AbstractAutoScrollExtensionConnector {
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vaadin.anna.dndscroll.client.AbstractAutoScrollExtensionConnector.ScrollAxis;
+import org.vaadin.anna.dndscroll.shared.PointerTrace;
+
+/**
+ * Records the pointer samples of one auto-scrolling drag.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class PointerTraceRecorder {
+
+    private final double startTime = AutoScrollStatisticsRecorder.now();
+    private final PointerTrace trace = new PointerTrace();
+    private final List<Double> timestamps = new ArrayList<Double>();
+    private final List<Integer> xs = new ArrayList<Integer>();
+    private final List<Integer> ys = new ArrayList<Integer>();
+
+    /**
+     * Starts recording a drag.
+     *
+     * @param geometry
+     *            the geometry of the auto-scrolling component
+     */
+    public PointerTraceRecorder(ScrollGeometry geometry) {
+        trace.setTop(geometry.getStart(ScrollAxis.VERTICAL));
+        trace.setBottom(geometry.getEnd(ScrollAxis.VERTICAL));
+        trace.setLeft(geometry.getStart(ScrollAxis.HORIZONTAL));
+        trace.setRight(geometry.getEnd(ScrollAxis.HORIZONTAL));
+        trace.setViewportHeight(
+                geometry.getViewportSize(ScrollAxis.VERTICAL));
+        trace.setMaxScrollTop(
+                geometry.getMaxScrollPosition(ScrollAxis.VERTICAL));
+        trace.setInitialScrollTop(
+                geometry.getScrollPosition(ScrollAxis.VERTICAL));
+    }
+
+    public void add(int x, int y) {
+        timestamps.add(AutoScrollStatisticsRecorder.now() - startTime);
+        xs.add(x);
+        ys.add(y);
+    }
+
+    /**
+     * Ends the recording.
+     *
+     * @param geometry
+     *            the geometry of the auto-scrolling component
+     * @return the recorded trace
+     */
+    public PointerTrace finish(ScrollGeometry geometry) {
+        trace.setFinalScrollTop(
+                geometry.getScrollPosition(ScrollAxis.VERTICAL));
+        int size = timestamps.size();
+        double[] timestampArray = new double[size];
+        int[] xArray = new int[size];
+        int[] yArray = new int[size];
+        for (int i = 0; i < size; ++i) {
+            timestampArray[i] = timestamps.get(i);
+            xArray[i] = xs.get(i);
+            yArray[i] = ys.get(i);
+        }
+        trace.setTimestamps(timestampArray);
+        trace.setX(xArray);
+        trace.setY(yArray);
+        return trace;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Tracks the pointer position for the duration of a drag using passive,
+ * document-level listeners. Pointer Events are used when the browser supports
+ * them, so mouse, touch and pen drags are all covered; older browsers fall back
+ * to mouse and touch events. Being passive, the listeners never delay the
+ * browser's own scrolling or event handling.
+ * <p>
+ * No pointer or mouse events are fired during HTML5 drags, so a tracker for
+ * those follows the dragover events of the whole document instead. When the
+ * drag leaves the browser window, the handler gets a position outside of the
+ * viewport, so that nothing keeps scrolling after the last sample within it.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class PointerTracker {
+
+    /**
+     * Callback for pointer moves.
+     */
+    public interface PointerMoveHandler {
+        /**
+         * Called for every pointer move while the tracker is active.
+         *
+         * @param clientX
+         *            horizontal pointer coordinate
+         * @param clientY
+         *            vertical pointer coordinate
+         */
+        void onPointerMove(int clientX, int clientY);
+    }
+
+    private final PointerMoveHandler handler;
+    private final boolean html5Drag;
+    private JavaScriptObject listeners;
+
+    public PointerTracker(PointerMoveHandler handler) {
+        this(handler, false);
+    }
+
+    /**
+     * Creates a tracker.
+     *
+     * @param handler
+     *            the callback for pointer moves
+     * @param html5Drag
+     *            {@code true} to track HTML5 drags, {@code false} to track
+     *            pointer moves
+     */
+    public PointerTracker(PointerMoveHandler handler, boolean html5Drag) {
+        this.handler = handler;
+        this.html5Drag = html5Drag;
+    }
+
+    public void start() {
+        if (listeners == null) {
+            listeners = addListeners(html5Drag);
+        }
+    }
+
+    public void stop() {
+        if (listeners != null) {
+            removeListeners(listeners);
+            listeners = null;
+        }
+    }
+
+    public boolean isActive() {
+        return listeners != null;
+    }
+
+    private void onPointerMove(int clientX, int clientY) {
+        handler.onPointerMove(clientX, clientY);
+    }
+
+    private native JavaScriptObject addListeners(boolean html5Drag)
+    /*-{
+        var self = this;
+        var listener = $entry(function(e) {
+            if (e.type === 'dragleave') {
+                if (!e.relatedTarget) {
+                    // left the window, no more dragover events are coming
+                    self.@org.vaadin.anna.dndscroll.client.PointerTracker::onPointerMove(II)(-1, -1);
+                }
+                return;
+            }
+            if (e.pointerType === 'mouse' && !(e.buttons & 1)) {
+                // mouse moves without the primary button aren't drags
+                return;
+            }
+            var p = e.touches && e.touches.length ? e.touches[0] : e;
+            self.@org.vaadin.anna.dndscroll.client.PointerTracker::onPointerMove(II)(Math.round(p.clientX), Math.round(p.clientY));
+        });
+
+        var passiveSupported = false;
+        try {
+            var probe = Object.defineProperty({}, 'passive', {
+                get : function() {
+                    passiveSupported = true;
+                }
+            });
+            $wnd.addEventListener('dndscrollprobe', null, probe);
+            $wnd.removeEventListener('dndscrollprobe', null, probe);
+        } catch (err) {
+            // passive listeners not supported
+        }
+        var options = passiveSupported ? {
+            passive : true,
+            capture : true
+        } : true;
+
+        var types;
+        if (html5Drag) {
+            types = [ 'dragover', 'dragleave' ];
+        } else if ($wnd.PointerEvent) {
+            types = [ 'pointermove' ];
+        } else {
+            types = [ 'mousemove', 'touchmove' ];
+        }
+        for (var i = 0; i < types.length; ++i) {
+            $doc.addEventListener(types[i], listener, options);
+        }
+        return {
+            listener : listener,
+            options : options,
+            types : types
+        };
+    }-*/;
+
+    private native void removeListeners(JavaScriptObject listeners)
+    /*-{
+        for (var i = 0; i < listeners.types.length; ++i) {
+            $doc.removeEventListener(listeners.types[i], listeners.listener,
+                    listeners.options);
+        }
+    }-*/;
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import org.vaadin.anna.dndscroll.client.AbstractAutoScrollExtensionConnector.ScrollAxis;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Window;
+
+/**
+ * Cache for the layout geometry of an auto-scrolling component. The bounds and
+ * scroll extents are measured once and then reused until a real resize or a
+ * content mutation is observed, so the per-frame scrolling logic doesn't need
+ * to force synchronous reflows.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class ScrollGeometry {
+
+    protected final Element element;
+    protected final Element scrollable;
+
+    private boolean valid = false;
+    private boolean scrollPositionValid = false;
+    private boolean ownScrollPending = false;
+    private int generation = 0;
+
+    private int elementTop;
+    private int elementBottom;
+    private int elementLeft;
+    private int elementRight;
+    private int scrollableTop;
+    private int scrollableBottom;
+    private int scrollableLeft;
+    private int scrollableRight;
+    private int scrollTop;
+    private int scrollLeft;
+    private int maxScrollTop;
+    private int maxScrollLeft;
+    private int viewportHeight;
+    private int viewportWidth;
+    private int scrollbarWidth;
+    private int scrollbarHeight;
+
+    private JavaScriptObject observers;
+    private HandlerRegistration windowResizeHandler;
+
+    /**
+     * Creates a geometry cache.
+     *
+     * @param element
+     *            the element whose bounds define the scrolling areas
+     * @param scrollable
+     *            the element that is actually scrolled
+     */
+    public ScrollGeometry(Element element, Element scrollable) {
+        this.element = element;
+        this.scrollable = scrollable;
+    }
+
+    /**
+     * Starts watching the elements for changes that invalidate the cached
+     * geometry: resizes, content mutations, and scrolling of the page or of
+     * any ancestor of the scrollable element.
+     */
+    public void observe() {
+        if (observers != null) {
+            return;
+        }
+        observers = createObservers(scrollable, isObservingMutations());
+        windowResizeHandler = Window.addResizeHandler(new ResizeHandler() {
+            @Override
+            public void onResize(ResizeEvent event) {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Stops watching the elements and marks the cached geometry invalid.
+     */
+    public void disconnect() {
+        if (observers != null) {
+            disconnectObservers(scrollable, observers);
+            observers = null;
+        }
+        if (windowResizeHandler != null) {
+            windowResizeHandler.removeHandler();
+            windowResizeHandler = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * Marks all cached values invalid, they are measured again on next access.
+     */
+    public void invalidate() {
+        valid = false;
+        scrollPositionValid = false;
+    }
+
+    /**
+     * Returns a counter that is incremented every time the geometry gets
+     * measured, can be used for detecting when values derived from the
+     * geometry need to be updated.
+     *
+     * @return the measurement generation
+     */
+    public int getGeneration() {
+        ensureMeasured();
+        return generation;
+    }
+
+    public int getStart(ScrollAxis axis) {
+        ensureMeasured();
+        return ScrollAxis.VERTICAL == axis ? elementTop : elementLeft;
+    }
+
+    public int getEnd(ScrollAxis axis) {
+        ensureMeasured();
+        return ScrollAxis.VERTICAL == axis ? elementBottom : elementRight;
+    }
+
+    /**
+     * Checks whether the given coordinates are within the scrollable element.
+     *
+     * @param x
+     *            horizontal coordinate
+     * @param y
+     *            vertical coordinate
+     * @return {@code true} if the coordinates are within the scrollable
+     *         element, {@code false} otherwise
+     */
+    public boolean contains(int x, int y) {
+        ensureMeasured();
+        return y >= scrollableTop && y <= scrollableBottom
+                && x >= scrollableLeft && x <= scrollableRight;
+    }
+
+    public int getScrollPosition(ScrollAxis axis) {
+        ensureMeasured();
+        if (!scrollPositionValid) {
+            scrollTop = readScrollPosition(ScrollAxis.VERTICAL);
+            scrollLeft = readScrollPosition(ScrollAxis.HORIZONTAL);
+            scrollPositionValid = true;
+        }
+        return ScrollAxis.VERTICAL == axis ? scrollTop : scrollLeft;
+    }
+
+    public int getMaxScrollPosition(ScrollAxis axis) {
+        ensureMeasured();
+        return ScrollAxis.VERTICAL == axis ? maxScrollTop : maxScrollLeft;
+    }
+
+    public int getViewportSize(ScrollAxis axis) {
+        ensureMeasured();
+        return ScrollAxis.VERTICAL == axis ? viewportHeight : viewportWidth;
+    }
+
+    /**
+     * Maps a pointer position over the scrollbar track of the given axis to
+     * the proportional scroll position, so that the top of the vertical track
+     * corresponds to the start of the content and the bottom to the end. The
+     * track is taken to be at least the given size, so that there is a zone to
+     * hover over even when the scrollbars are overlaid or hidden.
+     *
+     * @param axis
+     *            the scrolling axis
+     * @param x
+     *            horizontal pointer coordinate
+     * @param y
+     *            vertical pointer coordinate
+     * @param minTrackSize
+     *            the minimum thickness of the track in pixels
+     * @return the scroll position, or -1 if the pointer isn't over the track
+     *         or there is nothing to scroll
+     */
+    public int getScrollbarTrackPosition(ScrollAxis axis, int x, int y,
+            int minTrackSize) {
+        ensureMeasured();
+        int trackStart;
+        int trackLength;
+        int pointer;
+        boolean overTrack;
+        if (ScrollAxis.VERTICAL == axis) {
+            overTrack = x > scrollableRight
+                    - Math.max(scrollbarWidth, minTrackSize);
+            trackStart = scrollableTop;
+            trackLength = scrollableBottom - scrollbarHeight - scrollableTop;
+            pointer = y;
+        } else {
+            overTrack = y > scrollableBottom
+                    - Math.max(scrollbarHeight, minTrackSize);
+            trackStart = scrollableLeft;
+            trackLength = scrollableRight - scrollbarWidth - scrollableLeft;
+            pointer = x;
+        }
+        int maxScrollPosition = getMaxScrollPosition(axis);
+        if (!overTrack || trackLength <= 0 || maxScrollPosition == 0
+                || !contains(x, y)) {
+            return -1;
+        }
+        double fraction = Math.max(0,
+                Math.min(1, (double) (pointer - trackStart) / trackLength));
+        return (int) Math.round(fraction * maxScrollPosition);
+    }
+
+    /**
+     * Scrolls the scrollable element along both axes and updates the cached
+     * scroll position without reading it back from the DOM. Only the axes
+     * whose position actually changes are written.
+     *
+     * @param left
+     *            the new horizontal scroll position, clamped to the valid
+     *            range
+     * @param top
+     *            the new vertical scroll position, clamped to the valid range
+     */
+    public void setScrollPosition(int left, int top) {
+        int newLeft = clampScrollPosition(ScrollAxis.HORIZONTAL, left);
+        int newTop = clampScrollPosition(ScrollAxis.VERTICAL, top);
+        boolean leftChanged = newLeft != getScrollPosition(
+                ScrollAxis.HORIZONTAL);
+        boolean topChanged = newTop != getScrollPosition(ScrollAxis.VERTICAL);
+        if (!leftChanged && !topChanged) {
+            return;
+        }
+        // writing both axes within the same task only fires one scroll event
+        ownScrollPending = true;
+        if (leftChanged) {
+            writeScrollPosition(ScrollAxis.HORIZONTAL, newLeft);
+            scrollLeft = newLeft;
+        }
+        if (topChanged) {
+            writeScrollPosition(ScrollAxis.VERTICAL, newTop);
+            scrollTop = newTop;
+        }
+    }
+
+    /**
+     * Checks whether the scrolling can be handed to the native smooth
+     * scrolling of the browser.
+     *
+     * @return {@code true} if native smooth scrolling is supported
+     */
+    public boolean supportsSmoothScrolling() {
+        return isSmoothScrollingSupported(scrollable);
+    }
+
+    /**
+     * Starts a native smooth scroll towards the given position, replacing any
+     * smooth scroll that is still in progress. The scroll events of the
+     * animation invalidate the cached scroll position.
+     *
+     * @param left
+     *            the horizontal target position, clamped to the valid range
+     * @param top
+     *            the vertical target position, clamped to the valid range
+     */
+    public void smoothScrollTo(int left, int top) {
+        int targetLeft = clampScrollPosition(ScrollAxis.HORIZONTAL, left);
+        int targetTop = clampScrollPosition(ScrollAxis.VERTICAL, top);
+        scrollPositionValid = false;
+        nativeScrollTo(scrollable, targetLeft, targetTop, "smooth");
+    }
+
+    /**
+     * Stops a native smooth scroll at the current position.
+     */
+    public void stopSmoothScroll() {
+        scrollPositionValid = false;
+        nativeScrollTo(scrollable, readScrollPosition(ScrollAxis.HORIZONTAL),
+                readScrollPosition(ScrollAxis.VERTICAL), "auto");
+    }
+
+    private int clampScrollPosition(ScrollAxis axis, int position) {
+        return Math.max(0, Math.min(getMaxScrollPosition(axis), position));
+    }
+
+    protected int readScrollPosition(ScrollAxis axis) {
+        return ScrollAxis.VERTICAL == axis ? scrollable.getScrollTop()
+                : scrollable.getScrollLeft();
+    }
+
+    protected void writeScrollPosition(ScrollAxis axis, int position) {
+        if (ScrollAxis.VERTICAL == axis) {
+            scrollable.setScrollTop(position);
+        } else {
+            scrollable.setScrollLeft(position);
+        }
+    }
+
+    protected int measureScrollSize(ScrollAxis axis) {
+        return ScrollAxis.VERTICAL == axis ? scrollable.getScrollHeight()
+                : scrollable.getScrollWidth();
+    }
+
+    /**
+     * Measures the thickness of the scrollbar that scrolls along the given
+     * axis, zero if it's overlaid or hidden.
+     *
+     * @param axis
+     *            the scrolling axis
+     * @return the thickness of the scrollbar in pixels
+     */
+    protected int measureScrollbarSize(ScrollAxis axis) {
+        return ScrollAxis.VERTICAL == axis
+                ? scrollable.getOffsetWidth() - scrollable.getClientWidth()
+                : scrollable.getOffsetHeight() - scrollable.getClientHeight();
+    }
+
+    protected int measureViewportSize(ScrollAxis axis) {
+        return ScrollAxis.VERTICAL == axis ? scrollable.getOffsetHeight()
+                : scrollable.getOffsetWidth();
+    }
+
+    /**
+     * Whether content mutations within the scrollable element should
+     * invalidate the cached geometry. Should be disabled for elements that
+     * recycle their content while scrolling.
+     *
+     * @return {@code true} if mutations should be observed
+     */
+    protected boolean isObservingMutations() {
+        return true;
+    }
+
+    private void ensureMeasured() {
+        if (valid) {
+            return;
+        }
+        elementTop = element.getAbsoluteTop();
+        elementBottom = element.getAbsoluteBottom();
+        elementLeft = element.getAbsoluteLeft();
+        elementRight = element.getAbsoluteRight();
+        scrollableTop = scrollable.getAbsoluteTop();
+        scrollableBottom = scrollable.getAbsoluteBottom();
+        scrollableLeft = scrollable.getAbsoluteLeft();
+        scrollableRight = scrollable.getAbsoluteRight();
+        viewportHeight = measureViewportSize(ScrollAxis.VERTICAL);
+        viewportWidth = measureViewportSize(ScrollAxis.HORIZONTAL);
+        maxScrollTop = Math.max(0,
+                measureScrollSize(ScrollAxis.VERTICAL) - viewportHeight);
+        maxScrollLeft = Math.max(0,
+                measureScrollSize(ScrollAxis.HORIZONTAL) - viewportWidth);
+        scrollbarWidth = Math.max(0,
+                measureScrollbarSize(ScrollAxis.VERTICAL));
+        scrollbarHeight = Math.max(0,
+                measureScrollbarSize(ScrollAxis.HORIZONTAL));
+        scrollPositionValid = false;
+        valid = true;
+        ++generation;
+    }
+
+    /*
+     * Called for every scroll event of the scrollable element. Events caused
+     * by our own writes are ignored, anything else means the cached scroll
+     * position can no longer be trusted.
+     */
+    private void onScroll() {
+        if (ownScrollPending) {
+            ownScrollPending = false;
+        } else {
+            scrollPositionValid = false;
+        }
+    }
+
+    private static native boolean isSmoothScrollingSupported(
+            Element scrollable)
+    /*-{
+        return typeof scrollable.scrollTo === 'function'
+            && 'scrollBehavior' in $doc.documentElement.style;
+    }-*/;
+
+    private static native void nativeScrollTo(Element scrollable, int left,
+            int top, String behavior)
+    /*-{
+        scrollable.scrollTo({ left: left, top: top, behavior: behavior });
+    }-*/;
+
+    private native JavaScriptObject createObservers(Element scrollable,
+            boolean observeMutations)
+    /*-{
+        var self = this;
+        var invalidate = $entry(function() {
+            self.@org.vaadin.anna.dndscroll.client.ScrollGeometry::invalidate()();
+        });
+        var observers = {};
+        if ($wnd.ResizeObserver) {
+            observers.resize = new $wnd.ResizeObserver(invalidate);
+            observers.resize.observe(scrollable);
+            if (scrollable.firstElementChild) {
+                observers.resize.observe(scrollable.firstElementChild);
+            }
+        }
+        if (observeMutations && $wnd.MutationObserver) {
+            observers.mutation = new $wnd.MutationObserver(invalidate);
+            observers.mutation.observe(scrollable, {
+                childList : true,
+                subtree : true
+            });
+        }
+        observers.scroll = $entry(function() {
+            self.@org.vaadin.anna.dndscroll.client.ScrollGeometry::onScroll()();
+        });
+        // scroll events don't bubble, capture them in case the actual
+        // scrolling happens within a descendant
+        scrollable.addEventListener('scroll', observers.scroll, true);
+        // scrolling the page or any other ancestor moves the cached bounds
+        observers.ancestorScroll = $entry(function(event) {
+            var target = event.target;
+            if (target === $doc || target === $doc.documentElement
+                    || target !== scrollable && target.contains
+                            && target.contains(scrollable)) {
+                self.@org.vaadin.anna.dndscroll.client.ScrollGeometry::invalidate()();
+            }
+        });
+        $doc.addEventListener('scroll', observers.ancestorScroll, true);
+        return observers;
+    }-*/;
+
+    private native void disconnectObservers(Element scrollable,
+            JavaScriptObject observers)
+    /*-{
+        if (observers.resize) {
+            observers.resize.disconnect();
+        }
+        if (observers.mutation) {
+            observers.mutation.disconnect();
+        }
+        scrollable.removeEventListener('scroll', observers.scroll, true);
+        $doc.removeEventListener('scroll', observers.ancestorScroll, true);
+    }-*/;
+}
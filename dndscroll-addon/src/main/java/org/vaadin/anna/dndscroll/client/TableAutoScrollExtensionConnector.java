@@ -16,22 +16,134 @@
 
 package org.vaadin.anna.dndscroll.client;
 
+import org.vaadin.anna.dndscroll.shared.TableAutoScrollServerRpc;
+
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.Timer;
 import com.vaadin.shared.ui.Connect;
+import com.vaadin.shared.ui.Connect.LoadStyle;
 import com.vaadin.v7.client.ui.VScrollTable;
+import com.vaadin.v7.client.ui.VScrollTable.VScrollTableBody;
 
 /**
  * Connector for TableAutoScrollExtension.
+ * <p>
+ * Coordinates the scrolling with the lazy loading of the Table: the row cache
+ * is enlarged for the duration of the drag so that more rows are fetched ahead
+ * of the viewport, and the scroll speed is limited so that the viewport never
+ * overtakes the rows that have been rendered so far. When the scroll position
+ * jumps, the server is told which rows are needed next so that it can prefetch
+ * them.
  *
  * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
  */
-@Connect(org.vaadin.anna.dndscroll.TableAutoScrollExtension.class)
+@Connect(value = org.vaadin.anna.dndscroll.TableAutoScrollExtension.class,
+        loadStyle = LoadStyle.LAZY)
 public class TableAutoScrollExtensionConnector extends
         AbstractAutoScrollExtensionConnector {
 
+    /** Cache rate used while auto-scrolling, in pages. */
+    private static final double AUTOSCROLL_CACHE_RATE = 5;
+    /**
+     * Ratio of the cache react rate to the cache rate that VScrollTable uses
+     * by default.
+     */
+    private static final double DEFAULT_CACHE_REACT_RATIO = 0.75d;
+    /** How fast the rendered rows ahead of the viewport may be consumed. */
+    private static final double BUFFER_DRAIN_SECONDS = 0.5d;
+    /** Delay for reporting jumps, so that only the settled row is reported. */
+    private static final int JUMP_REPORT_DELAY_MS = 100;
+
+    private double originalCacheRate = -1;
+    private double originalCacheReactRate = -1;
+    private int jumpRow = -1;
+    private int reportedJumpRow = -1;
+    private final Timer jumpReporter = new Timer() {
+        @Override
+        public void run() {
+            if (jumpRow != reportedJumpRow) {
+                reportedJumpRow = jumpRow;
+                getRpcProxy(TableAutoScrollServerRpc.class)
+                        .scrolledToRow(jumpRow);
+            }
+        }
+    };
+
     @Override
     public Element getScrollTarget() {
         return ((VScrollTable) widget).scrollBody.getElement()
                 .getParentElement();
     }
+
+    @Override
+    protected void onAutoScrollStarted() {
+        VScrollTable table = (VScrollTable) widget;
+        if (table.cache_rate < AUTOSCROLL_CACHE_RATE) {
+            originalCacheRate = table.cache_rate;
+            originalCacheReactRate = table.cache_react_rate;
+            table.cache_rate = AUTOSCROLL_CACHE_RATE;
+            // a zero cache rate leaves no ratio to keep
+            table.cache_react_rate = AUTOSCROLL_CACHE_RATE
+                    * (originalCacheRate > 0
+                            ? originalCacheReactRate / originalCacheRate
+                            : DEFAULT_CACHE_REACT_RATIO);
+        }
+    }
+
+    @Override
+    protected void onAutoScrollStopped() {
+        if (originalCacheRate >= 0) {
+            VScrollTable table = (VScrollTable) widget;
+            // the server may have updated the rates in the meantime
+            if (table.cache_rate == AUTOSCROLL_CACHE_RATE) {
+                table.cache_rate = originalCacheRate;
+                table.cache_react_rate = originalCacheReactRate;
+            }
+            originalCacheRate = -1;
+            originalCacheReactRate = -1;
+        }
+        jumpReporter.cancel();
+        jumpRow = -1;
+        reportedJumpRow = -1;
+    }
+
+    @Override
+    protected void onScrollbarJump(ScrollAxis axis, int position) {
+        VScrollTableBody body = ((VScrollTable) widget).scrollBody;
+        if (ScrollAxis.VERTICAL != axis || body == null
+                || body.getRowHeight() <= 0) {
+            return;
+        }
+        jumpRow = (int) (position / body.getRowHeight());
+        if (jumpRow != reportedJumpRow) {
+            jumpReporter.schedule(JUMP_REPORT_DELAY_MS);
+        }
+    }
+
+    @Override
+    protected double limitScrollSpeed(ScrollAxis axis, double speed) {
+        if (ScrollAxis.VERTICAL != axis || speed == 0) {
+            return speed;
+        }
+        VScrollTableBody body = ((VScrollTable) widget).scrollBody;
+        if (body == null) {
+            return speed;
+        }
+        double rowHeight = body.getRowHeight();
+        int scrollPos = geometry.getScrollPosition(axis);
+        double renderedPixelsAhead;
+        if (speed > 0) {
+            double renderedEnd = (body.getLastRendered() + 1) * rowHeight;
+            renderedPixelsAhead = renderedEnd
+                    - (scrollPos + geometry.getViewportSize(axis));
+        } else {
+            double renderedStart = body.getFirstRendered() * rowHeight;
+            renderedPixelsAhead = scrollPos - renderedStart;
+        }
+        // while the rows ahead are still being requested from the server,
+        // only the rows that have already been rendered may be scrolled into
+        double maxSpeed = Math.max(0, renderedPixelsAhead)
+                / BUFFER_DRAIN_SECONDS;
+        return Math.signum(speed) * Math.min(Math.abs(speed), maxSpeed);
+    }
 }
\ No newline at end of file
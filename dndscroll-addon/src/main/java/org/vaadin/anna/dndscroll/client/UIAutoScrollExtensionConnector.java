@@ -0,0 +1,160 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.client;
+
+import java.util.List;
+
+import org.vaadin.anna.dndscroll.shared.UIAutoScrollExtensionState;
+
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.Util;
+import com.vaadin.client.WidgetUtil;
+import com.vaadin.client.ui.dd.VTransferable;
+import com.vaadin.shared.AbstractComponentState;
+import com.vaadin.shared.ui.Connect;
+import com.vaadin.shared.ui.Connect.LoadStyle;
+
+/**
+ * Connector for UIAutoScrollExtension.
+ * <p>
+ * Registered as the fallback scroll container of the drag and drop manager,
+ * so it only gets the drags that no component specific extension has claimed.
+ * The scroll target is looked up anew for every drag by walking the ancestors
+ * of the drag start position until an allowed scrollable element is found.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+@Connect(value = org.vaadin.anna.dndscroll.UIAutoScrollExtension.class,
+        loadStyle = LoadStyle.LAZY)
+public class UIAutoScrollExtensionConnector extends
+        AbstractAutoScrollExtensionConnector {
+
+    @Override
+    public UIAutoScrollExtensionState getState() {
+        return (UIAutoScrollExtensionState) super.getState();
+    }
+
+    @Override
+    protected HandlerRegistration registerScrollContainer(
+            CustomDragAndDropManager manager) {
+        return manager.setFallbackScrollContainer(this);
+    }
+
+    @Override
+    public void onDragStarted(VTransferable transferable,
+            NativeEvent startEvent) {
+        stopAndCleanup();
+        Element target = findScrollTarget(getDragStartElement(transferable,
+                startEvent));
+        if (target == null) {
+            return;
+        }
+        element = target;
+        scrollable = target;
+        super.onDragStarted(transferable, startEvent);
+    }
+
+    @Override
+    public Element getScrollTarget() {
+        return scrollable;
+    }
+
+    private Element getDragStartElement(VTransferable transferable,
+            NativeEvent startEvent) {
+        if (startEvent != null) {
+            EventTarget eventTarget = startEvent.getEventTarget();
+            if (Element.is(eventTarget)) {
+                return Element.as(eventTarget);
+            }
+        }
+        ComponentConnector dragSource = transferable.getDragSource();
+        return dragSource != null ? dragSource.getWidget().getElement()
+                : null;
+    }
+
+    private Element findScrollTarget(Element start) {
+        Element uiElement = widget.getElement();
+        Element candidate = start;
+        while (candidate != null) {
+            if (isScrollable(candidate) && isAllowed(candidate)) {
+                return candidate;
+            }
+            if (candidate == uiElement) {
+                break;
+            }
+            candidate = candidate.getParentElement();
+        }
+        return null;
+    }
+
+    private boolean isAllowed(Element candidate) {
+        Widget owner = WidgetUtil.findWidget(candidate, null);
+        ComponentConnector connector = owner != null
+                ? Util.findConnectorFor(owner) : null;
+        UIAutoScrollExtensionState state = getState();
+        boolean allowed = state.allowedComponents.isEmpty()
+                && state.allowedStyleNames.isEmpty();
+        ServerConnector ancestor = connector;
+        while (ancestor != null) {
+            if (matches(ancestor, state.deniedComponents,
+                    state.deniedStyleNames)) {
+                return false;
+            }
+            allowed = allowed || matches(ancestor, state.allowedComponents,
+                    state.allowedStyleNames);
+            ancestor = ancestor.getParent();
+        }
+        return allowed;
+    }
+
+    private static boolean matches(ServerConnector connector,
+            List<?> components, List<String> styleNames) {
+        if (components.contains(connector)) {
+            return true;
+        }
+        if (styleNames.isEmpty()
+                || !(connector instanceof ComponentConnector)) {
+            return false;
+        }
+        AbstractComponentState state = ((ComponentConnector) connector)
+                .getState();
+        if (state.styles == null) {
+            return false;
+        }
+        for (String styleName : styleNames) {
+            if (state.styles.contains(styleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static native boolean isScrollable(Element element)
+    /*-{
+        var style = $wnd.getComputedStyle(element);
+        var scrollsY = style.overflowY == 'auto' || style.overflowY == 'scroll';
+        var scrollsX = style.overflowX == 'auto' || style.overflowX == 'scroll';
+        return (scrollsY && element.scrollHeight > element.clientHeight)
+            || (scrollsX && element.scrollWidth > element.clientWidth);
+    }-*/;
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import com.vaadin.shared.communication.SharedState;
+
+/**
+ * Shared state for the auto-scroll extensions.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollExtensionState extends SharedState {
+
+    public ScrollSpeedProfile speedProfile = ScrollSpeedProfile.LINEAR;
+
+    /** Scroll speed at the end of the scrolling area, in pixels per second. */
+    public int scrollSpeed = 800;
+
+    /** Upper limit for the scroll speed, in pixels per second. */
+    public int maxScrollSpeed = 8000;
+
+    /**
+     * If positive, the upper limit for the scroll speed is at least this
+     * fraction of the total scroll size per second.
+     */
+    public double maxScrollSpeedRatio = 0;
+
+    /**
+     * Growth of the speed multiplier per second of dwelling within the
+     * scrolling area, used by {@link ScrollSpeedProfile#DWELL}.
+     */
+    public double dwellAcceleration = 1.0;
+
+    /**
+     * Whether the scrolling should be handed to the native smooth scrolling
+     * of the browser when it's supported.
+     */
+    public boolean smoothScrolling = false;
+
+    /**
+     * Whether the scrolling should start or speed up already when the pointer
+     * is moving fast towards a scrolling area.
+     */
+    public boolean predictiveScrolling = false;
+
+    /**
+     * How far ahead the pointer position is predicted in predictive mode, in
+     * milliseconds.
+     */
+    public int predictionTime = 200;
+
+    /**
+     * Whether hovering the dragged item over a scrollbar should jump the
+     * scroll position to the matching point of the content.
+     */
+    public boolean scrollbarJumping = false;
+
+    /**
+     * Whether the server should be notified about auto-scrolling. The
+     * notifications are sent also when the component is auto-scrolled as an
+     * enclosing scroller of a drag within a nested component.
+     */
+    public boolean autoScrollEvents = false;
+
+    /**
+     * Whether frame timing statistics should be recorded and reported. Only
+     * the drags that start within the component are recorded.
+     */
+    public boolean statisticsEnabled = false;
+
+    /**
+     * Whether the pointer samples of drags should be recorded and sent. Only
+     * the drags that start within the component are recorded.
+     */
+    public boolean pointerTraceRecording = false;
+}
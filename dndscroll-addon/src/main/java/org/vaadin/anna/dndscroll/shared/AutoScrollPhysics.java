@@ -0,0 +1,404 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+/**
+ * The DOM independent part of auto-scrolling along a single axis: the scroll
+ * bounds, the scrolling areas that grow and rebound with the pointer, and the
+ * conversion of the pointer position into scroll speed and pixels. All the
+ * coordinates are given by the caller, so the same logic is used by the
+ * client-side connectors and can be run and measured on the JVM as well.
+ * <p>
+ * The physics doesn't allocate anything after construction.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollPhysics {
+
+    /** Minimum size of the area in the middle that never auto-scrolls. */
+    public static final int MIN_NO_AUTOSCROLL_AREA_PX = 50;
+
+    /** Scrolling areas smaller than this don't scroll at all. */
+    public static final int GRADIENT_MIN_THRESHOLD_PX = 10;
+
+    /**
+     * Pointer speed below which the pointer isn't considered to be heading
+     * anywhere in particular, in pixels per millisecond.
+     */
+    private static final double PREDICTION_MIN_VELOCITY_PX_PER_MS = 0.5d;
+
+    /** Weight of the latest sample in the smoothed pointer velocity. */
+    private static final double VELOCITY_SMOOTHING = 0.5d;
+
+    /**
+     * Time after the latest pointer sample when the pointer is considered to
+     * have stopped.
+     */
+    private static final double VELOCITY_TIMEOUT_MS = 100;
+
+    private static final int SCROLL_AREA_REBOUND_PX_PER_SEC = 1;
+    private static final double SCROLL_AREA_REBOUND_PX_PER_MS = SCROLL_AREA_REBOUND_PX_PER_SEC
+            / 1000.0d;
+
+    private int startBound = -1;
+    private int endBound = -1;
+    private int finalStartBound;
+    private int finalEndBound;
+    private int gradientArea;
+    private int pointerCoordinate;
+    private boolean pointerWithin = false;
+    private boolean scrollAreaShouldRebound = false;
+    private double scrollRatio = 0;
+    private double predictedRatio = 0;
+    private double pointerVelocity = 0;
+    private double pointerTimestamp = -1;
+    private double dwellStart = -1;
+    private double dwellDirection = 0;
+    private double pixelsToScroll = 0.0d;
+
+    /**
+     * Sets the bounds of the scrolling areas from the extent of the component
+     * along the scrolling axis. The areas are shrunk if they would leave less
+     * than {@link #MIN_NO_AUTOSCROLL_AREA_PX} between them.
+     * <p>
+     * When called again during a drag, for an instance after the component
+     * has been moved or resized, the current scrolling areas move along with
+     * the final bounds. An area that was displaced at drag start stays
+     * displaced by the same amount, but never beyond its new final position.
+     *
+     * @param areaStart
+     *            the start coordinate of the component
+     * @param areaEnd
+     *            the end coordinate of the component
+     * @param scrollAreaPX
+     *            the preferred size of the scrolling areas
+     */
+    public void updateScrollBounds(int areaStart, int areaEnd,
+            int scrollAreaPX) {
+        int startingBound = areaStart + 1 + scrollAreaPX;
+        int endingBound = areaEnd - 1 - scrollAreaPX;
+        gradientArea = scrollAreaPX;
+
+        if (endingBound - startingBound < MIN_NO_AUTOSCROLL_AREA_PX) {
+            double adjustment = MIN_NO_AUTOSCROLL_AREA_PX
+                    - (endingBound - startingBound);
+            startingBound -= adjustment / 2;
+            endingBound += adjustment / 2;
+            gradientArea -= adjustment / 2;
+        }
+        if (startBound != -1) {
+            startBound = Math.min(
+                    startBound + startingBound - finalStartBound,
+                    startingBound);
+            endBound = Math.max(endBound + endingBound - finalEndBound,
+                    endingBound);
+        }
+        finalStartBound = startingBound;
+        finalEndBound = endingBound;
+        if (startBound != -1) {
+            updateScrollSpeed(pointerCoordinate);
+        }
+    }
+
+    /**
+     * Processes a new pointer position.
+     *
+     * @param coordinate
+     *            the pointer coordinate along the scrolling axis
+     * @param within
+     *            whether the pointer is within the scrollable element at all
+     */
+    public void updatePointerCoords(int coordinate, boolean within) {
+        updatePointerCoords(coordinate, within, -1);
+    }
+
+    /**
+     * Processes a new pointer position and tracks the velocity of the pointer
+     * for {@link AutoScrollExtensionState#predictiveScrolling}.
+     *
+     * @param coordinate
+     *            the pointer coordinate along the scrolling axis
+     * @param within
+     *            whether the pointer is within the scrollable element at all
+     * @param timestamp
+     *            the time of the sample in milliseconds, or -1 if unknown
+     */
+    public void updatePointerCoords(int coordinate, boolean within,
+            double timestamp) {
+        updatePointerVelocity(coordinate, timestamp);
+        pointerWithin = within;
+        doScrollAreaChecks(coordinate);
+        updateScrollSpeed(coordinate);
+        pointerCoordinate = coordinate;
+    }
+
+    /**
+     * Updates the smoothed pointer velocity with a new sample. Samples without
+     * a timestamp reset the velocity.
+     */
+    private void updatePointerVelocity(int coordinate, double timestamp) {
+        if (timestamp < 0 || pointerTimestamp < 0 || startBound == -1) {
+            pointerVelocity = 0;
+        } else if (timestamp > pointerTimestamp) {
+            double velocity = (coordinate - pointerCoordinate)
+                    / (timestamp - pointerTimestamp);
+            pointerVelocity = VELOCITY_SMOOTHING * velocity
+                    + (1 - VELOCITY_SMOOTHING) * pointerVelocity;
+        } else {
+            // several samples within the same frame, keep the earlier
+            // timestamp so that the next sample covers all the movement
+            return;
+        }
+        pointerTimestamp = timestamp;
+    }
+
+    /**
+     * Adjusts the scrolling areas to the pointer position. If the drag starts
+     * within a scrolling area, the area is moved out of the way and only
+     * follows the pointer back towards its final position, so that the drag
+     * doesn't start scrolling immediately.
+     *
+     * @param coordinate
+     *            the pointer coordinate along the scrolling axis
+     */
+    public void doScrollAreaChecks(int coordinate) {
+        if (startBound == -1) {
+            startBound = Math.min(finalStartBound, coordinate);
+            endBound = Math.max(finalEndBound, coordinate);
+        } else {
+            int oldTopBound = startBound;
+            if (startBound < finalStartBound) {
+                startBound = Math.max(startBound,
+                        Math.min(finalStartBound, coordinate));
+            }
+
+            int oldBottomBound = endBound;
+            if (endBound > finalEndBound) {
+                endBound = Math.min(endBound,
+                        Math.max(finalEndBound, coordinate));
+            }
+
+            final boolean startDidNotMove = oldTopBound == startBound;
+            final boolean endDidNotMove = oldBottomBound == endBound;
+            final boolean wasMovement = coordinate != pointerCoordinate;
+            scrollAreaShouldRebound = (startDidNotMove && endDidNotMove
+                    && wasMovement);
+        }
+    }
+
+    /**
+     * Moves the displaced scrolling areas back towards their final positions.
+     *
+     * @param timeDiff
+     *            milliseconds since the previous frame
+     */
+    public void reboundScrollArea(double timeDiff) {
+        if (!scrollAreaShouldRebound) {
+            return;
+        }
+
+        int reboundPx = (int) Math
+                .ceil(SCROLL_AREA_REBOUND_PX_PER_MS * timeDiff);
+        if (startBound < finalStartBound) {
+            startBound += reboundPx;
+            startBound = Math.min(startBound, finalStartBound);
+            updateScrollSpeed(pointerCoordinate);
+        } else if (endBound > finalEndBound) {
+            endBound -= reboundPx;
+            endBound = Math.max(endBound, finalEndBound);
+            updateScrollSpeed(pointerCoordinate);
+        }
+    }
+
+    /**
+     * Updates the scroll ratio from the depth of the pointer within the
+     * scrolling areas.
+     *
+     * @param coordinate
+     *            the pointer coordinate along the scrolling axis
+     */
+    public void updateScrollSpeed(int coordinate) {
+        scrollRatio = getRatio(coordinate);
+    }
+
+    private double getRatio(int coordinate) {
+        if (!pointerWithin) {
+            return 0;
+        } else if (coordinate < startBound) {
+            final double distance = coordinate - startBound;
+            return Math.max(-1, distance / gradientArea);
+        } else if (coordinate > endBound) {
+            final double distance = coordinate - endBound;
+            return Math.min(1, distance / gradientArea);
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Updates the predicted scroll ratio from the position the pointer would
+     * reach within the prediction time at its current velocity. The
+     * prediction only counts when the pointer is heading for the scrolling
+     * area at the end it's moving towards.
+     *
+     * @param timestamp
+     *            the frame timestamp in milliseconds
+     * @param predictionTime
+     *            how far ahead to predict in milliseconds, zero to disable
+     */
+    private void updatePredictedRatio(double timestamp, int predictionTime) {
+        if (pointerTimestamp >= 0
+                && timestamp - pointerTimestamp > VELOCITY_TIMEOUT_MS) {
+            // the pointer has stopped, no more events are coming
+            pointerVelocity = 0;
+        }
+        predictedRatio = 0;
+        if (predictionTime <= 0 || Math
+                .abs(pointerVelocity) < PREDICTION_MIN_VELOCITY_PX_PER_MS) {
+            return;
+        }
+        double ratio = getRatio(pointerCoordinate
+                + (int) (pointerVelocity * predictionTime));
+        if (Math.signum(ratio) == Math.signum(pointerVelocity)
+                && Math.signum(scrollRatio) != -Math.signum(ratio)
+                && Math.abs(ratio) > Math.abs(scrollRatio)) {
+            predictedRatio = ratio;
+        }
+    }
+
+    /**
+     * Converts the scroll ratio into scroll speed according to the speed
+     * profile of the given state.
+     *
+     * @param timestamp
+     *            the frame timestamp in milliseconds
+     * @param state
+     *            the speed settings
+     * @param maxScrollPosition
+     *            the maximum scroll position along the axis
+     * @return the speed in pixels per second, negative when scrolling towards
+     *         the start
+     */
+    public double calculateScrollSpeed(double timestamp,
+            AutoScrollExtensionState state, int maxScrollPosition) {
+        updatePredictedRatio(timestamp,
+                state.predictiveScrolling ? state.predictionTime : 0);
+        double ratio = getScrollRatio();
+        if (ratio == 0) {
+            dwellStart = -1;
+            return 0;
+        }
+        double maxSpeed = Math.max(state.maxScrollSpeed,
+                state.maxScrollSpeedRatio * maxScrollPosition);
+        double depth = Math.abs(ratio);
+        double direction = Math.signum(ratio);
+        double speed;
+        switch (state.speedProfile) {
+        case EXPONENTIAL:
+            double range = state.scrollSpeed > 0
+                    ? Math.max(1, maxSpeed / state.scrollSpeed) : 1;
+            speed = state.scrollSpeed * depth * Math.pow(range, depth);
+            break;
+        case DWELL:
+            if (dwellStart < 0 || direction != dwellDirection) {
+                dwellStart = timestamp;
+                dwellDirection = direction;
+            }
+            double dwellSeconds = (timestamp - dwellStart) / 1000.0d;
+            speed = state.scrollSpeed * depth
+                    * (1 + state.dwellAcceleration * dwellSeconds);
+            break;
+        case LINEAR:
+        default:
+            speed = state.scrollSpeed * depth;
+            break;
+        }
+        return direction * Math.min(speed, maxSpeed);
+    }
+
+    /**
+     * Advances the scrolling by the given time. Fractions of pixels are
+     * carried over to the following frames.
+     *
+     * @param speed
+     *            the scroll speed in pixels per second
+     * @param timeDiff
+     *            milliseconds since the previous frame
+     * @return the whole pixels to scroll in this frame
+     */
+    public int advance(double speed, double timeDiff) {
+        pixelsToScroll += speed * (timeDiff / 1000.0d);
+        int intPixelsToScroll = (int) pixelsToScroll;
+        pixelsToScroll -= intPixelsToScroll;
+        return intPixelsToScroll;
+    }
+
+    /**
+     * Drops the carried over fractions of pixels, called when the scrolling
+     * pauses.
+     */
+    public void park() {
+        pixelsToScroll = 0.0d;
+    }
+
+    /**
+     * Checks whether there is something to animate: either the pointer is
+     * within a scrolling area or a scrolling area is still rebounding.
+     *
+     * @return {@code true} if the next frame is needed
+     */
+    public boolean isMoving() {
+        return gradientArea >= GRADIENT_MIN_THRESHOLD_PX
+                && (getScrollRatio() != 0 || scrollAreaShouldRebound
+                        && (startBound < finalStartBound
+                                || endBound > finalEndBound));
+    }
+
+    /**
+     * Checks whether a scrolling area has been moved away from its final
+     * position because the drag started within it, and hasn't rebounded yet.
+     *
+     * @return {@code true} if a scrolling area is displaced
+     */
+    public boolean isScrollAreaDisplaced() {
+        return startBound < finalStartBound || endBound > finalEndBound;
+    }
+
+    /**
+     * Returns the depth of the pointer within the scrolling areas. In
+     * predictive mode this is the predicted depth instead whenever the pointer
+     * is heading deeper into the scrolling area, or towards it from outside.
+     *
+     * @return a value between -1 and 1, negative towards the start and zero
+     *         when not within a scrolling area
+     */
+    public double getScrollRatio() {
+        return predictedRatio != 0 ? predictedRatio : scrollRatio;
+    }
+
+    public int getStartBound() {
+        return startBound;
+    }
+
+    public int getEndBound() {
+        return endBound;
+    }
+
+    public int getGradientArea() {
+        return gradientArea;
+    }
+}
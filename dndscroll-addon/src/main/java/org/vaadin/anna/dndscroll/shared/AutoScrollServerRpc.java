@@ -0,0 +1,64 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import com.vaadin.shared.communication.ServerRpc;
+
+/**
+ * RPC for notifying the server about the auto-scrolling during a drag. Only
+ * used when the extension has listeners.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public interface AutoScrollServerRpc extends ServerRpc {
+
+    /**
+     * Auto-scrolling has been started for a drag.
+     */
+    void autoScrollStarted();
+
+    /**
+     * The direction of auto-scrolling has changed. Calls are throttled on the
+     * client side, so very short-lived directions might never be reported.
+     *
+     * @param direction
+     *            the new direction, {@link ScrollDirection#NONE} if scrolling
+     *            has stopped
+     */
+    void scrollDirectionChanged(ScrollDirection direction);
+
+    /**
+     * Auto-scrolling has ended because the drag ended.
+     */
+    void autoScrollEnded();
+
+    /**
+     * Reports the frame timing statistics of a drag after it has ended.
+     *
+     * @param statistics
+     *            the statistics recorded on the client
+     */
+    void statisticsReported(AutoScrollStatistics statistics);
+
+    /**
+     * Reports the pointer samples of a drag after it has ended.
+     *
+     * @param trace
+     *            the trace recorded on the client
+     */
+    void pointerTraceRecorded(PointerTrace trace);
+}
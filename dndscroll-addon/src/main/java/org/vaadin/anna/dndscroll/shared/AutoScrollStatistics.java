@@ -0,0 +1,143 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import java.io.Serializable;
+
+/**
+ * Frame timing statistics of one auto-scrolling drag, as measured on the
+ * client. All times are in milliseconds.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollStatistics implements Serializable {
+
+    private int frameCount;
+    private int droppedFrames;
+    private double frameTimeMedian;
+    private double frameTime95thPercentile;
+    private double frameTime99thPercentile;
+    private double frameTimeMax;
+    private double executionTime;
+    private int pixelsScrolled;
+    private double dragDuration;
+
+    /**
+     * Returns the number of animation frames the auto-scroller ran during the
+     * drag. Frames are not run while the scroller is idle.
+     *
+     * @return the frame count
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public void setFrameCount(int frameCount) {
+        this.frameCount = frameCount;
+    }
+
+    /**
+     * Returns the estimated number of frames that were dropped between the
+     * frames that were run, assuming 60 frames per second.
+     *
+     * @return the dropped frame count
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public void setDroppedFrames(int droppedFrames) {
+        this.droppedFrames = droppedFrames;
+    }
+
+    public double getFrameTimeMedian() {
+        return frameTimeMedian;
+    }
+
+    public void setFrameTimeMedian(double frameTimeMedian) {
+        this.frameTimeMedian = frameTimeMedian;
+    }
+
+    public double getFrameTime95thPercentile() {
+        return frameTime95thPercentile;
+    }
+
+    public void setFrameTime95thPercentile(double frameTime95thPercentile) {
+        this.frameTime95thPercentile = frameTime95thPercentile;
+    }
+
+    public double getFrameTime99thPercentile() {
+        return frameTime99thPercentile;
+    }
+
+    public void setFrameTime99thPercentile(double frameTime99thPercentile) {
+        this.frameTime99thPercentile = frameTime99thPercentile;
+    }
+
+    public double getFrameTimeMax() {
+        return frameTimeMax;
+    }
+
+    public void setFrameTimeMax(double frameTimeMax) {
+        this.frameTimeMax = frameTimeMax;
+    }
+
+    /**
+     * Returns the total time spent in the auto-scroller's own frame code.
+     *
+     * @return the execution time
+     */
+    public double getExecutionTime() {
+        return executionTime;
+    }
+
+    public void setExecutionTime(double executionTime) {
+        this.executionTime = executionTime;
+    }
+
+    public int getPixelsScrolled() {
+        return pixelsScrolled;
+    }
+
+    public void setPixelsScrolled(int pixelsScrolled) {
+        this.pixelsScrolled = pixelsScrolled;
+    }
+
+    /**
+     * Returns the time from the start of auto-scrolling to the drop.
+     *
+     * @return the drag duration
+     */
+    public double getDragDuration() {
+        return dragDuration;
+    }
+
+    public void setDragDuration(double dragDuration) {
+        this.dragDuration = dragDuration;
+    }
+
+    @Override
+    public String toString() {
+        return "AutoScrollStatistics [frameCount=" + frameCount
+                + ", droppedFrames=" + droppedFrames + ", frameTimeMedian="
+                + frameTimeMedian + ", frameTime95thPercentile="
+                + frameTime95thPercentile + ", frameTime99thPercentile="
+                + frameTime99thPercentile + ", frameTimeMax=" + frameTimeMax
+                + ", executionTime=" + executionTime + ", pixelsScrolled="
+                + pixelsScrolled + ", dragDuration=" + dragDuration + "]";
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import com.vaadin.shared.communication.ServerRpc;
+
+/**
+ * RPC for reporting a row that has been dragged to a new position in a Grid.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public interface GridRowReorderServerRpc extends ServerRpc {
+
+    /**
+     * A row has been dropped to a new position.
+     *
+     * @param fromIndex
+     *            the index of the dragged row
+     * @param toIndex
+     *            the index of the row before which the dragged row was
+     *            dropped, or the row count if it was dropped after the last
+     *            row
+     */
+    void moveRow(int fromIndex, int toIndex);
+}
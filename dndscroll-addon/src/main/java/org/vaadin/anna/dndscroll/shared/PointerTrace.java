@@ -0,0 +1,142 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import java.io.Serializable;
+
+/**
+ * Timestamped pointer coordinates of one auto-scrolling drag, together with
+ * the geometry of the vertically scrolling component. Can be replayed against
+ * {@link AutoScrollPhysics} for comparing speed settings offline. Timestamps
+ * are in milliseconds from the start of auto-scrolling, coordinates are the
+ * ones the auto-scroller received.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class PointerTrace implements Serializable {
+
+    private int top;
+    private int bottom;
+    private int left;
+    private int right;
+    private int viewportHeight;
+    private int maxScrollTop;
+    private int initialScrollTop;
+    private int finalScrollTop;
+    private double[] timestamps = new double[0];
+    private int[] x = new int[0];
+    private int[] y = new int[0];
+
+    public int getTop() {
+        return top;
+    }
+
+    public void setTop(int top) {
+        this.top = top;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public void setBottom(int bottom) {
+        this.bottom = bottom;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public void setLeft(int left) {
+        this.left = left;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public void setRight(int right) {
+        this.right = right;
+    }
+
+    public int getViewportHeight() {
+        return viewportHeight;
+    }
+
+    public void setViewportHeight(int viewportHeight) {
+        this.viewportHeight = viewportHeight;
+    }
+
+    public int getMaxScrollTop() {
+        return maxScrollTop;
+    }
+
+    public void setMaxScrollTop(int maxScrollTop) {
+        this.maxScrollTop = maxScrollTop;
+    }
+
+    public int getInitialScrollTop() {
+        return initialScrollTop;
+    }
+
+    public void setInitialScrollTop(int initialScrollTop) {
+        this.initialScrollTop = initialScrollTop;
+    }
+
+    /**
+     * Returns the scroll position at the end of the drag. Assuming the user
+     * dropped the item where they meant to, this is the scroll target of the
+     * drag.
+     *
+     * @return the final vertical scroll position
+     */
+    public int getFinalScrollTop() {
+        return finalScrollTop;
+    }
+
+    public void setFinalScrollTop(int finalScrollTop) {
+        this.finalScrollTop = finalScrollTop;
+    }
+
+    public double[] getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(double[] timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    public int[] getX() {
+        return x;
+    }
+
+    public void setX(int[] x) {
+        this.x = x;
+    }
+
+    public int[] getY() {
+        return y;
+    }
+
+    public void setY(int[] y) {
+        this.y = y;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+}
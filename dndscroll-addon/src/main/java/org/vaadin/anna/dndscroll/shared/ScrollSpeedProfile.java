@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+/**
+ * Defines how the auto-scrolling speed is derived from the position of the
+ * dragged item within the scrolling area.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public enum ScrollSpeedProfile {
+    /**
+     * The speed grows linearly with the depth of the pointer within the
+     * scrolling area, up to the configured scroll speed.
+     */
+    LINEAR,
+
+    /**
+     * The speed grows exponentially with the depth of the pointer within the
+     * scrolling area, from roughly the linear speed near the start of the area
+     * up to the maximum scroll speed at its end.
+     */
+    EXPONENTIAL,
+
+    /**
+     * The speed starts out linear and accelerates for as long as the pointer
+     * dwells within the scrolling area, up to the maximum scroll speed.
+     */
+    DWELL
+}
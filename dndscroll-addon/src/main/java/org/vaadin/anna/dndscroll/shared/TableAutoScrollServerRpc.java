@@ -0,0 +1,36 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import com.vaadin.shared.communication.ServerRpc;
+
+/**
+ * RPC for the Table specific notifications of the Table auto-scroll extension.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public interface TableAutoScrollServerRpc extends ServerRpc {
+
+    /**
+     * The scroll position has jumped because the dragged item is hovered over
+     * the scrollbar.
+     *
+     * @param firstVisibleRow
+     *            the index of the first row visible at the new position
+     */
+    void scrolledToRow(int firstVisibleRow);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.shared.Connector;
+
+/**
+ * Shared state for the UI-wide auto-scroll extension.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class UIAutoScrollExtensionState extends AutoScrollExtensionState {
+
+    /**
+     * If not empty, only scrollables within these components are scrolled.
+     */
+    public List<Connector> allowedComponents = new ArrayList<Connector>();
+
+    /** Scrollables within these components are never scrolled. */
+    public List<Connector> deniedComponents = new ArrayList<Connector>();
+
+    /**
+     * If not empty, only scrollables within components with one of these
+     * style names are scrolled.
+     */
+    public List<String> allowedStyleNames = new ArrayList<String>();
+
+    /**
+     * Scrollables within components with any of these style names are never
+     * scrolled.
+     */
+    public List<String> deniedStyleNames = new ArrayList<String>();
+}
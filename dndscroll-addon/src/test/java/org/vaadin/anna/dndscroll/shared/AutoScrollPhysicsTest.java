@@ -0,0 +1,412 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the DOM independent auto-scroll calculations.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class AutoScrollPhysicsTest {
+
+    private static final double DELTA = 0.0001d;
+
+    private AutoScrollPhysics physics;
+    private AutoScrollExtensionState state;
+
+    @Before
+    public void setUp() {
+        physics = new AutoScrollPhysics();
+        state = new AutoScrollExtensionState();
+    }
+
+    @Test
+    public void updateScrollBounds_roomyArea_boundsAtScrollAreaDistance() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(500, true);
+
+        assertEquals(101, physics.getStartBound());
+        assertEquals(899, physics.getEndBound());
+        assertEquals(100, physics.getGradientArea());
+    }
+
+    @Test
+    public void updateScrollBounds_smallArea_scrollAreasShrunk() {
+        physics.updateScrollBounds(0, 200, 100);
+        physics.updatePointerCoords(100, true);
+
+        assertEquals(75, physics.getStartBound());
+        assertEquals(125, physics.getEndBound());
+        assertEquals(AutoScrollPhysics.MIN_NO_AUTOSCROLL_AREA_PX,
+                physics.getEndBound() - physics.getStartBound());
+        assertEquals(74, physics.getGradientArea());
+    }
+
+    @Test
+    public void dragStartedWithinScrollArea_areaMovedAndRebounds() {
+        physics.updateScrollBounds(0, 1000, 100);
+
+        physics.updatePointerCoords(50, true);
+        assertEquals(50, physics.getStartBound());
+        assertTrue(physics.isScrollAreaDisplaced());
+        assertEquals(0, physics.getScrollRatio(), DELTA);
+
+        // moving towards the final position drags the area along
+        physics.updatePointerCoords(60, true);
+        assertEquals(60, physics.getStartBound());
+        assertEquals(0, physics.getScrollRatio(), DELTA);
+
+        // moving back into the displaced area scrolls and starts the rebound
+        physics.updatePointerCoords(40, true);
+        assertEquals(60, physics.getStartBound());
+        assertEquals(-0.2, physics.getScrollRatio(), DELTA);
+        assertTrue(physics.isMoving());
+
+        physics.reboundScrollArea(20000);
+        assertEquals(80, physics.getStartBound());
+        assertEquals(-0.4, physics.getScrollRatio(), DELTA);
+
+        physics.reboundScrollArea(100000);
+        assertEquals(101, physics.getStartBound());
+        assertFalse(physics.isScrollAreaDisplaced());
+        assertEquals(-0.61, physics.getScrollRatio(), DELTA);
+    }
+
+    @Test
+    public void reboundScrollArea_noMovement_areaStaysDisplaced() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(50, true);
+
+        physics.reboundScrollArea(100000);
+
+        assertEquals(50, physics.getStartBound());
+        assertTrue(physics.isScrollAreaDisplaced());
+    }
+
+    @Test
+    public void updateScrollBounds_areaMovedDuringDrag_boundsFollow() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(500, true);
+
+        physics.updateScrollBounds(-50, 950, 100);
+
+        assertEquals(51, physics.getStartBound());
+        assertEquals(849, physics.getEndBound());
+        assertFalse(physics.isScrollAreaDisplaced());
+        assertFalse(physics.isMoving());
+
+        physics.updatePointerCoords(80, true);
+        assertEquals(0, physics.getScrollRatio(), DELTA);
+        physics.updatePointerCoords(870, true);
+        assertEquals(0.21, physics.getScrollRatio(), DELTA);
+    }
+
+    @Test
+    public void updateScrollBounds_displacedAreaMoved_displacementKept() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(50, true);
+
+        physics.updateScrollBounds(20, 1020, 100);
+        assertEquals(70, physics.getStartBound());
+        assertEquals(919, physics.getEndBound());
+        assertTrue(physics.isScrollAreaDisplaced());
+
+        // the rebound still ends at the new final position
+        physics.updatePointerCoords(60, true);
+        physics.updatePointerCoords(40, true);
+        physics.reboundScrollArea(100000);
+        assertEquals(121, physics.getStartBound());
+        assertFalse(physics.isScrollAreaDisplaced());
+    }
+
+    @Test
+    public void updatePointerCoords_ratioByDepth() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(500, true);
+        assertEquals(0, physics.getScrollRatio(), DELTA);
+        assertFalse(physics.isMoving());
+
+        physics.updatePointerCoords(949, true);
+        assertEquals(0.5, physics.getScrollRatio(), DELTA);
+        assertTrue(physics.isMoving());
+
+        physics.updatePointerCoords(76, true);
+        assertEquals(-0.25, physics.getScrollRatio(), DELTA);
+    }
+
+    @Test
+    public void updatePointerCoords_beyondScrollArea_ratioClamped() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(500, true);
+
+        physics.updatePointerCoords(2000, true);
+        assertEquals(1, physics.getScrollRatio(), DELTA);
+
+        physics.updatePointerCoords(-500, true);
+        assertEquals(-1, physics.getScrollRatio(), DELTA);
+    }
+
+    @Test
+    public void updatePointerCoords_notWithin_noScrolling() {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(500, true);
+
+        physics.updatePointerCoords(949, false);
+
+        assertEquals(0, physics.getScrollRatio(), DELTA);
+        assertFalse(physics.isMoving());
+        assertEquals(0,
+                physics.calculateScrollSpeed(0, state, 100000), DELTA);
+    }
+
+    @Test
+    public void isMoving_scrollAreaBelowThreshold_notMoving() {
+        physics.updateScrollBounds(0, 1000,
+                AutoScrollPhysics.GRADIENT_MIN_THRESHOLD_PX - 1);
+        physics.updatePointerCoords(500, true);
+
+        physics.updatePointerCoords(995, true);
+
+        assertFalse(physics.isMoving());
+    }
+
+    @Test
+    public void calculateScrollSpeed_linear() {
+        pointerAtRatio(0.5);
+
+        assertEquals(400, physics.calculateScrollSpeed(0, state, 100000),
+                DELTA);
+
+        physics.updatePointerCoords(51, true);
+        assertEquals(-400, physics.calculateScrollSpeed(0, state, 100000),
+                DELTA);
+    }
+
+    @Test
+    public void calculateScrollSpeed_exponential() {
+        state.speedProfile = ScrollSpeedProfile.EXPONENTIAL;
+        pointerAtRatio(0.5);
+
+        // 800 * 0.5 * (8000 / 800)^0.5
+        assertEquals(400 * Math.sqrt(10),
+                physics.calculateScrollSpeed(0, state, 100000), DELTA);
+
+        pointerAtRatio(1);
+        assertEquals(8000, physics.calculateScrollSpeed(0, state, 100000),
+                DELTA);
+    }
+
+    @Test
+    public void calculateScrollSpeed_dwell_acceleratesOverTime() {
+        state.speedProfile = ScrollSpeedProfile.DWELL;
+        state.dwellAcceleration = 1;
+        pointerAtRatio(0.5);
+
+        assertEquals(400, physics.calculateScrollSpeed(1000, state, 100000),
+                DELTA);
+        assertEquals(1200, physics.calculateScrollSpeed(3000, state, 100000),
+                DELTA);
+
+        // leaving the scrolling area resets the dwell time
+        physics.updatePointerCoords(500, true);
+        assertEquals(0, physics.calculateScrollSpeed(4000, state, 100000),
+                DELTA);
+        pointerAtRatio(0.5);
+        assertEquals(400, physics.calculateScrollSpeed(5000, state, 100000),
+                DELTA);
+    }
+
+    @Test
+    public void calculateScrollSpeed_cappedByMaxScrollSpeed() {
+        state.speedProfile = ScrollSpeedProfile.DWELL;
+        pointerAtRatio(0.5);
+        physics.calculateScrollSpeed(0, state, 100000);
+
+        assertEquals(8000,
+                physics.calculateScrollSpeed(100000, state, 100000), DELTA);
+
+        physics.updatePointerCoords(51, true);
+        physics.calculateScrollSpeed(0, state, 100000);
+        assertEquals(-8000,
+                physics.calculateScrollSpeed(100000, state, 100000), DELTA);
+    }
+
+    @Test
+    public void calculateScrollSpeed_maxScrollSpeedRatio_raisesCap() {
+        state.speedProfile = ScrollSpeedProfile.DWELL;
+        state.maxScrollSpeedRatio = 0.1;
+        pointerAtRatio(0.5);
+        physics.calculateScrollSpeed(0, state, 1000000);
+
+        // 400 * (1 + 100) is below the 100000 px/s cap
+        assertEquals(40400,
+                physics.calculateScrollSpeed(100000, state, 1000000), DELTA);
+
+        // a small scroll size doesn't lower the cap below maxScrollSpeed
+        assertEquals(8000,
+                physics.calculateScrollSpeed(100000, state, 1000), DELTA);
+    }
+
+    @Test
+    public void advance_fractionsCarriedOver() {
+        assertEquals(1, physics.advance(100, 16));
+        assertEquals(2, physics.advance(100, 16));
+        assertEquals(-1, physics.advance(-100, 16));
+    }
+
+    @Test
+    public void park_fractionsDropped() {
+        assertEquals(0, physics.advance(100, 5));
+        physics.park();
+
+        assertEquals(0, physics.advance(100, 5));
+        assertEquals(1, physics.advance(100, 5));
+    }
+
+    @Test
+    public void predictiveScrolling_headingForEdge_scrollsEarly() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 200;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        // 10 px/ms smoothed to 5 px/ms, 1000 px ahead
+        physics.updatePointerCoords(1100, true, 10);
+
+        assertEquals(800, physics.calculateScrollSpeed(10, state, 100000),
+                DELTA);
+        assertEquals(1, physics.getScrollRatio(), DELTA);
+        assertTrue(physics.isMoving());
+    }
+
+    @Test
+    public void predictiveScrolling_disabled_noScrollingBeforeEdge() {
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        physics.updatePointerCoords(1100, true, 10);
+
+        assertEquals(0, physics.calculateScrollSpeed(10, state, 100000),
+                DELTA);
+        assertFalse(physics.isMoving());
+    }
+
+    @Test
+    public void predictiveScrolling_predictionRampsWithVelocity() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 100;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        // 5 px/ms, 500 px ahead: 101 px deep into the end area
+        physics.updatePointerCoords(1100, true, 10);
+
+        assertEquals(800 * 101 / 500.0d,
+                physics.calculateScrollSpeed(10, state, 100000), DELTA);
+        assertEquals(101 / 500.0d, physics.getScrollRatio(), DELTA);
+    }
+
+    @Test
+    public void predictiveScrolling_slowPointer_noPrediction() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 10000;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        // 0.8 px/ms smoothed to 0.4 px/ms, below the threshold
+        physics.updatePointerCoords(1008, true, 10);
+
+        assertEquals(0, physics.calculateScrollSpeed(10, state, 100000),
+                DELTA);
+    }
+
+    @Test
+    public void predictiveScrolling_pointerStopped_predictionDropped() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 200;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        physics.updatePointerCoords(1100, true, 10);
+        assertEquals(800, physics.calculateScrollSpeed(10, state, 100000),
+                DELTA);
+
+        // no samples for longer than the velocity timeout
+        assertEquals(0, physics.calculateScrollSpeed(111, state, 100000),
+                DELTA);
+        assertEquals(0, physics.getScrollRatio(), DELTA);
+    }
+
+    @Test
+    public void predictiveScrolling_turningBack_directionNotReversed() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 400;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        physics.updatePointerCoords(1900, true, 10);
+        physics.updatePointerCoords(1800, true, 20);
+        physics.updatePointerCoords(1700, true, 30);
+        // the smoothed velocity is now -3.125 px/ms, so the prediction
+        // would be 1250 px back, deep in the start area
+        physics.updatePointerCoords(1600, true, 40);
+
+        assertEquals(800 * 101 / 500.0d,
+                physics.calculateScrollSpeed(40, state, 100000), DELTA);
+    }
+
+    @Test
+    public void predictiveScrolling_shallowerPrediction_actualDepthUsed() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 200;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        physics.updatePointerCoords(1990, true, 10);
+        // moving back towards the middle at 1 px/ms, the prediction is still
+        // within the end area but shallower
+        for (int i = 1; i <= 19; ++i) {
+            physics.updatePointerCoords(1990 - i * 10, true, 10 + i * 10);
+        }
+
+        assertEquals(800 * 301 / 500.0d,
+                physics.calculateScrollSpeed(200, state, 100000), DELTA);
+    }
+
+    @Test
+    public void predictiveScrolling_notWithin_noPrediction() {
+        state.predictiveScrolling = true;
+        state.predictionTime = 200;
+        physics.updateScrollBounds(0, 2000, 500);
+        physics.updatePointerCoords(1000, true, 0);
+        physics.updatePointerCoords(1100, false, 10);
+
+        assertEquals(0, physics.calculateScrollSpeed(10, state, 100000),
+                DELTA);
+    }
+
+    /**
+     * Places the pointer at the given depth of the end scrolling area of a
+     * 1000 px component with 100 px scrolling areas.
+     */
+    private void pointerAtRatio(double ratio) {
+        physics.updateScrollBounds(0, 1000, 100);
+        physics.updatePointerCoords(500, true);
+        physics.updatePointerCoords(899 + (int) Math.round(ratio * 100),
+                true);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vaadin.anna.dndscroll.shared.AutoScrollExtensionState;
+import org.vaadin.anna.dndscroll.shared.AutoScrollPhysics;
+import org.vaadin.anna.dndscroll.shared.ScrollSpeedProfile;
+
+/**
+ * Measures the per-frame cost of the auto-scroll physics. The pointer follows
+ * a synthetic trace that enters the end scrolling area, dwells there and
+ * wanders back out, so all the branches of the scroll area handling get
+ * exercised. Run with {@code -prof gc} to verify that the frames don't
+ * allocate.
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoScrollPhysicsBenchmark {
+
+    private static final double FRAME_MS = 1000.0d / 60;
+    private static final int AREA_START = 100;
+    private static final int AREA_END = 700;
+    private static final int SCROLL_AREA_PX = 100;
+    private static final int MAX_SCROLL_POSITION = 100000;
+    private static final int TRACE_LENGTH = 1024;
+
+    @Param({ "LINEAR", "EXPONENTIAL", "DWELL" })
+    public ScrollSpeedProfile speedProfile;
+
+    private AutoScrollPhysics physics;
+    private AutoScrollExtensionState state;
+    private int[] trace;
+    private int frame;
+    private double timestamp;
+
+    @Setup
+    public void setup() {
+        state = new AutoScrollExtensionState();
+        state.speedProfile = speedProfile;
+        physics = new AutoScrollPhysics();
+        physics.updateScrollBounds(AREA_START, AREA_END, SCROLL_AREA_PX);
+
+        trace = new int[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; ++i) {
+            // from the middle into the end scrolling area and back
+            double phase = Math.sin(Math.PI * 2 * i / TRACE_LENGTH);
+            trace[i] = (int) (400 + 295 * phase);
+        }
+        frame = 0;
+        timestamp = 0;
+
+        // start the drag in the middle and move into the end scrolling area
+        physics.updatePointerCoords((AREA_START + AREA_END) / 2, true);
+        physics.updatePointerCoords(AREA_END - 20, true);
+    }
+
+    /**
+     * A frame that processes a new pointer sample, as during pointer
+     * movement.
+     */
+    @Benchmark
+    public int frameWithPointerSample() {
+        int coordinate = trace[frame++ & (TRACE_LENGTH - 1)];
+        physics.updatePointerCoords(coordinate, true);
+        return advance();
+    }
+
+    /**
+     * A frame without new pointer samples, as when the pointer is held still
+     * within a scrolling area.
+     */
+    @Benchmark
+    public int frameWithoutPointerSample() {
+        return advance();
+    }
+
+    /**
+     * Recalculation of the bounds after the geometry has been re-measured.
+     */
+    @Benchmark
+    public int updateScrollBounds() {
+        physics.updateScrollBounds(AREA_START, AREA_END + (frame++ & 1),
+                SCROLL_AREA_PX);
+        return physics.getGradientArea();
+    }
+
+    private int advance() {
+        timestamp += FRAME_MS;
+        physics.reboundScrollArea(FRAME_MS);
+        double speed = physics.calculateScrollSpeed(timestamp, state,
+                MAX_SCROLL_POSITION);
+        return physics.advance(speed, FRAME_MS);
+    }
+}
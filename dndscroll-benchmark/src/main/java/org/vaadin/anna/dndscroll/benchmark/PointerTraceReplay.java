@@ -0,0 +1,267 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.vaadin.anna.dndscroll.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.vaadin.anna.dndscroll.PointerTraces;
+import org.vaadin.anna.dndscroll.shared.AutoScrollExtensionState;
+import org.vaadin.anna.dndscroll.shared.AutoScrollPhysics;
+import org.vaadin.anna.dndscroll.shared.PointerTrace;
+import org.vaadin.anna.dndscroll.shared.ScrollSpeedProfile;
+
+/**
+ * Headless replay of recorded pointer traces against {@link AutoScrollPhysics}
+ * at 60 frames per second, for comparing speed settings against a fixed
+ * corpus of real drags. The final scroll position of each recorded drag is
+ * taken as its target, and the trace can be replayed against simulated
+ * scroll sizes, in which case the initial and target positions are scaled
+ * along.
+ * <p>
+ * The replay is open loop: the recorded pointer reacted to the scrolling the
+ * user saw, not to the simulated one, so the results are for comparing
+ * settings with each other rather than absolute measurements.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * PointerTraceReplay [--profile LINEAR|EXPONENTIAL|DWELL] [--speed px/s]
+ *         [--max-speed px/s] [--max-speed-ratio ratio] [--dwell acceleration]
+ *         [--predict ms] [--sizes px,px,...] trace-file-or-directory...
+ * </pre>
+ *
+ * @author Teppo Kurki, Anna Koskinen / Vaadin Ltd.
+ */
+public class PointerTraceReplay {
+
+    private static final double FRAME_MS = 1000.0d / 60;
+    private static final int SCROLL_AREA_PX = 100;
+    private static final int REPEAT = 20;
+
+    /**
+     * The outcome of replaying one trace.
+     */
+    public static class Result {
+        /** Time until the target was first reached, -1 if never. */
+        public double timeToTarget = -1;
+        /** Furthest distance scrolled past the target. */
+        public int overshoot;
+        /** Total distance scrolled. */
+        public int distance;
+        /** Distance scrolled away from the target. */
+        public int wasted;
+        /**
+         * Distance scrolled away from the target while a scrolling area was
+         * displaced by the rebound behavior.
+         */
+        public int wastedDuringRebound;
+        /** Distance from the target at the end of the drag. */
+        public int finalError;
+        public int frames;
+        /** Average time spent in the physics per frame. */
+        public double nanosPerFrame;
+    }
+
+    /**
+     * Replays a trace.
+     *
+     * @param trace
+     *            the recorded trace
+     * @param maxScrollTop
+     *            the simulated maximum scroll position
+     * @param settings
+     *            the speed settings to use
+     * @return the outcome
+     */
+    public static Result replay(PointerTrace trace, int maxScrollTop,
+            AutoScrollExtensionState settings) {
+        Result result = new Result();
+        int size = trace.size();
+        if (size == 0) {
+            return result;
+        }
+        double[] timestamps = trace.getTimestamps();
+        int[] xs = trace.getX();
+        int[] ys = trace.getY();
+        double scale = trace.getMaxScrollTop() > 0
+                ? (double) maxScrollTop / trace.getMaxScrollTop() : 1;
+        int position = clamp(
+                (int) Math.round(trace.getInitialScrollTop() * scale),
+                maxScrollTop);
+        int target = clamp((int) Math.round(trace.getFinalScrollTop() * scale),
+                maxScrollTop);
+        int direction = Integer.signum(target - position);
+
+        AutoScrollPhysics physics = new AutoScrollPhysics();
+        physics.updateScrollBounds(trace.getTop(), trace.getBottom(),
+                SCROLL_AREA_PX);
+        long nanos = 0;
+        int sample = 0;
+        double start = timestamps[0];
+        double end = timestamps[size - 1];
+        for (double time = start; time <= end; time += FRAME_MS) {
+            long frameStart = System.nanoTime();
+            int latest = -1;
+            while (sample < size && timestamps[sample] <= time) {
+                latest = sample++;
+            }
+            if (latest >= 0) {
+                int x = xs[latest];
+                int y = ys[latest];
+                physics.updatePointerCoords(y,
+                        y >= trace.getTop() && y <= trace.getBottom()
+                                && x >= trace.getLeft()
+                                && x <= trace.getRight(),
+                        time);
+            }
+            double timeDiff = time == start ? 0 : FRAME_MS;
+            physics.reboundScrollArea(timeDiff);
+            double speed = physics.calculateScrollSpeed(time, settings,
+                    maxScrollTop);
+            int newPosition = clamp(
+                    position + physics.advance(speed, timeDiff),
+                    maxScrollTop);
+            nanos += System.nanoTime() - frameStart;
+            ++result.frames;
+
+            int delta = Math.abs(newPosition - position);
+            result.distance += delta;
+            if (Math.abs(newPosition - target) > Math
+                    .abs(position - target)) {
+                result.wasted += delta;
+                if (physics.isScrollAreaDisplaced()) {
+                    result.wastedDuringRebound += delta;
+                }
+            }
+            position = newPosition;
+
+            boolean reached = direction >= 0 ? position >= target
+                    : position <= target;
+            if (reached) {
+                if (result.timeToTarget < 0) {
+                    result.timeToTarget = time - start;
+                }
+                result.overshoot = Math.max(result.overshoot,
+                        (position - target) * (direction == 0 ? 1 : direction));
+            }
+        }
+        result.finalError = Math.abs(position - target);
+        result.nanosPerFrame = result.frames == 0 ? 0
+                : (double) nanos / result.frames;
+        return result;
+    }
+
+    private static int clamp(int position, int maxScrollTop) {
+        return Math.max(0, Math.min(maxScrollTop, position));
+    }
+
+    public static void main(String[] args) throws IOException {
+        AutoScrollExtensionState settings = new AutoScrollExtensionState();
+        List<Integer> sizes = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+            case "--profile":
+                settings.speedProfile = ScrollSpeedProfile.valueOf(args[++i]);
+                break;
+            case "--speed":
+                settings.scrollSpeed = Integer.parseInt(args[++i]);
+                break;
+            case "--max-speed":
+                settings.maxScrollSpeed = Integer.parseInt(args[++i]);
+                break;
+            case "--max-speed-ratio":
+                settings.maxScrollSpeedRatio = Double.parseDouble(args[++i]);
+                break;
+            case "--dwell":
+                settings.dwellAcceleration = Double.parseDouble(args[++i]);
+                break;
+            case "--predict":
+                settings.predictiveScrolling = true;
+                settings.predictionTime = Integer.parseInt(args[++i]);
+                break;
+            case "--sizes":
+                for (String size : args[++i].split(",")) {
+                    sizes.add(Integer.valueOf(size.trim()));
+                }
+                break;
+            default:
+                collectTraces(Paths.get(args[i]), files);
+                break;
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("No trace files given");
+            System.exit(1);
+        }
+        Collections.sort(files);
+
+        System.out.printf("%-32s %9s %10s %9s %9s %9s %9s %9s %9s%n", "trace",
+                "size", "target ms", "overshoot", "distance", "wasted",
+                "rebound", "error", "ns/frame");
+        for (Path file : files) {
+            PointerTrace trace;
+            try (Reader reader = Files.newBufferedReader(file,
+                    StandardCharsets.UTF_8)) {
+                trace = PointerTraces.read(reader);
+            }
+            List<Integer> replaySizes = sizes.isEmpty()
+                    ? Collections.singletonList(trace.getMaxScrollTop())
+                    : sizes;
+            for (int size : replaySizes) {
+                Result result = null;
+                double nanosPerFrame = Double.MAX_VALUE;
+                // repeat for a stable CPU time, the other results are
+                // deterministic
+                for (int i = 0; i < REPEAT; ++i) {
+                    result = replay(trace, size, settings);
+                    nanosPerFrame = Math.min(nanosPerFrame,
+                            result.nanosPerFrame);
+                }
+                System.out.printf(
+                        "%-32s %9d %10.0f %9d %9d %9d %9d %9d %9.1f%n",
+                        file.getFileName(), size, result.timeToTarget,
+                        result.overshoot, result.distance, result.wasted,
+                        result.wastedDuringRebound, result.finalError,
+                        nanosPerFrame);
+            }
+        }
+    }
+
+    private static void collectTraces(Path path, List<Path> files)
+            throws IOException {
+        if (!Files.isDirectory(path)) {
+            files.add(path);
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path,
+                "*.txt")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+    }
+}
@@ -16,40 +16,43 @@
 
 package org.vaadin.anna.dndscroll.demo;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.servlet.annotation.WebServlet;
 
+import org.vaadin.anna.dndscroll.AbstractAutoScrollExtension;
+import org.vaadin.anna.dndscroll.LayoutReorderDropHandler;
 import org.vaadin.anna.dndscroll.PanelAutoScrollExtension;
+import org.vaadin.anna.dndscroll.PointerTraces;
+import org.vaadin.anna.dndscroll.ReorderableList;
 import org.vaadin.anna.dndscroll.TableAutoScrollExtension;
+import org.vaadin.anna.dndscroll.TableReorderDropHandler;
 
 import com.vaadin.annotations.Theme;
 import com.vaadin.annotations.Title;
 import com.vaadin.annotations.VaadinServletConfiguration;
 import com.vaadin.annotations.Widgetset;
-import com.vaadin.event.dd.DragAndDropEvent;
-import com.vaadin.event.dd.DropHandler;
-import com.vaadin.event.dd.acceptcriteria.AcceptAll;
-import com.vaadin.event.dd.acceptcriteria.AcceptCriterion;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinServlet;
-import com.vaadin.shared.ui.dd.HorizontalDropLocation;
-import com.vaadin.shared.ui.dd.VerticalDropLocation;
-import com.vaadin.ui.AbstractOrderedLayout;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.DragAndDropWrapper;
 import com.vaadin.ui.DragAndDropWrapper.DragStartMode;
-import com.vaadin.ui.DragAndDropWrapper.WrapperTargetDetails;
-import com.vaadin.ui.DragAndDropWrapper.WrapperTransferable;
 import com.vaadin.ui.HorizontalLayout;
 import com.vaadin.ui.Label;
-import com.vaadin.ui.Notification;
 import com.vaadin.ui.Panel;
 import com.vaadin.ui.UI;
 import com.vaadin.ui.VerticalLayout;
 import com.vaadin.v7.data.util.BeanItemContainer;
-import com.vaadin.v7.ui.AbstractSelect.AbstractSelectTargetDetails;
 import com.vaadin.v7.ui.Table;
 import com.vaadin.v7.ui.Table.TableDragMode;
-import com.vaadin.v7.ui.Table.TableTransferable;
 
 @Theme("demo")
 @Title("DNDScroll Add-on Demo")
@@ -57,6 +60,12 @@ import com.vaadin.v7.ui.Table.TableTransferable;
 @Widgetset("org.vaadin.anna.dndscroll.demo.DNDScrollDemoWidgetset")
 public class DemoUI extends UI {
 
+    /**
+     * System property for a directory where the pointer traces of the Table
+     * drags are written, for replaying them with the benchmark module.
+     */
+    public static final String TRACE_DIR_PROPERTY = "dndscroll.traceDir";
+
     @WebServlet(value = "/*", asyncSupported = true)
     @VaadinServletConfiguration(productionMode = false, ui = DemoUI.class)
     public static class Servlet extends VaadinServlet {
@@ -70,7 +79,7 @@ public class DemoUI extends UI {
         layout.setSpacing(true);
         layout.setMargin(true);
         layout.addComponents(createTable(), createHorizontalPanel(),
-                createVerticalPanel());
+                createVerticalPanel(), createReorderableList());
         setContent(layout);
     }
 
@@ -81,21 +90,43 @@ public class DemoUI extends UI {
         for (int i = 0; i < 30; ++i) {
             container.addBean(new TestBean("item" + i));
         }
-        table.setDragMode(TableDragMode.ROW);
+        table.setSelectable(true);
+        table.setMultiSelect(true);
+        table.setDragMode(TableDragMode.MULTIROW);
         table.setContainerDataSource(container);
         table.setPageLength(6);
         table.setWidth(200, Unit.PIXELS);
-        table.setDropHandler(new TableDropHandler());
+        table.setDropHandler(new TableReorderDropHandler());
         TableAutoScrollExtension extension = new TableAutoScrollExtension();
         extension.extend(table);
+        extension.setScrollbarJumping(true);
+        recordPointerTraces(extension);
         return table;
     }
 
+    private void recordPointerTraces(AbstractAutoScrollExtension extension) {
+        String traceDir = System.getProperty(TRACE_DIR_PROPERTY);
+        if (traceDir == null) {
+            return;
+        }
+        extension.addPointerTraceListener(event -> {
+            Path file = Paths.get(traceDir,
+                    "trace-" + System.currentTimeMillis() + ".txt");
+            try (Writer writer = Files.newBufferedWriter(file,
+                    StandardCharsets.UTF_8)) {
+                PointerTraces.write(event.getTrace(), writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     private Component createHorizontalPanel() {
         Panel panel = new Panel();
         HorizontalLayout content = new HorizontalLayout();
         content.setSpacing(true);
-        PanelDropHandler dropHandler = new PanelDropHandler(content);
+        LayoutReorderDropHandler dropHandler = new LayoutReorderDropHandler(
+                content);
         for (int i = 0; i < 30; ++i) {
             Label label = new Label("label" + i);
             label.setWidthUndefined();
@@ -115,7 +146,8 @@ public class DemoUI extends UI {
         Panel panel = new Panel();
         VerticalLayout content = new VerticalLayout();
         content.setSpacing(true);
-        PanelDropHandler dropHandler = new PanelDropHandler(content);
+        LayoutReorderDropHandler dropHandler = new LayoutReorderDropHandler(
+                content);
         for (int i = 0; i < 30; ++i) {
             Label label = new Label("label" + i);
             label.setWidthUndefined();
@@ -131,101 +163,15 @@ public class DemoUI extends UI {
         return panel;
     }
 
-    protected static class PanelDropHandler implements DropHandler {
-        private AbstractOrderedLayout content;
-
-        public PanelDropHandler(AbstractOrderedLayout content) {
-            this.content = content;
+    private Component createReorderableList() {
+        List<String> items = new ArrayList<String>();
+        for (int i = 0; i < 100000; ++i) {
+            items.add("item" + i);
         }
-
-        @Override
-        public void drop(DragAndDropEvent event) {
-            WrapperTargetDetails details = (WrapperTargetDetails) event
-                    .getTargetDetails();
-            if (!(event.getTransferable() instanceof WrapperTransferable)) {
-                Notification.show("illegal drop");
-                return;
-            }
-            WrapperTransferable transferable = (WrapperTransferable) event
-                    .getTransferable();
-
-            Component target = (details.getTarget());
-            while (!(target instanceof DragAndDropWrapper)
-                    && target.getParent() != null) {
-                if (target == content) {
-                    break;
-                }
-                target = target.getParent();
-            }
-
-            Component draggedComponent = transferable.getDraggedComponent();
-            Component parent = draggedComponent.getParent();
-            while (!content.equals(parent) && parent != null) {
-                draggedComponent = parent;
-                parent = parent.getParent();
-            }
-            if (!content.equals(parent)) {
-                Notification.show("illegal drop");
-                return;
-            }
-
-            content.removeComponent(draggedComponent);
-            if (VerticalDropLocation.TOP.equals(details
-                    .getVerticalDropLocation())
-                    || HorizontalDropLocation.LEFT.equals(details
-                            .getHorizontalDropLocation())) {
-                content.addComponent(draggedComponent,
-                        content.getComponentIndex(target));
-            } else {
-                content.addComponent(draggedComponent,
-                        content.getComponentIndex(target) + 1);
-            }
-        }
-
-        @Override
-        public AcceptCriterion getAcceptCriterion() {
-            return AcceptAll.get();
-        }
-
-    }
-
-    protected static class TableDropHandler implements DropHandler {
-
-        public TableDropHandler() {
-        }
-
-        @Override
-        public void drop(DragAndDropEvent event) {
-            AbstractSelectTargetDetails details = (AbstractSelectTargetDetails) event
-                    .getTargetDetails();
-            TableTransferable transferable = (TableTransferable) event
-                    .getTransferable();
-
-            Table table = (Table) details.getTarget();
-
-            Object itemId = transferable.getItemId();
-            table.removeItem(itemId);
-            if (VerticalDropLocation.TOP.equals(details.getDropLocation())) {
-                @SuppressWarnings("unchecked")
-                BeanItemContainer<TestBean> container = (BeanItemContainer<TestBean>) table
-                        .getContainerDataSource();
-                TestBean prevItemId = container.prevItemId(details
-                        .getItemIdOver());
-                if (prevItemId != null) {
-                    container.addItemAfter(prevItemId, itemId);
-                } else {
-                    container.addItemAt(0, itemId);
-                }
-            } else {
-                table.addItemAfter(details.getItemIdOver(), itemId);
-            }
-        }
-
-        @Override
-        public AcceptCriterion getAcceptCriterion() {
-            return AcceptAll.get();
-        }
-
+        ReorderableList<String> list = new ReorderableList<String>(items);
+        list.setWidth(200, Unit.PIXELS);
+        list.setHeight(200, Unit.PIXELS);
+        return list;
     }
 
     public static class TestBean {